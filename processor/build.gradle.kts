@@ -0,0 +1,120 @@
+// An optional annotation processor for mods using OneConfig, which generates the option tables and Gson adapters
+// of their config classes so OneConfig doesn't have to find them through reflection while the game starts.
+// Mods use it with `annotationProcessor("cc.polyfrost:oneconfig-processor:<version>")`.
+@file:Suppress("GradlePackageUpdate", "DSL_SCOPE_VIOLATION")
+
+plugins {
+    alias(libs.plugins.jmh)
+    id("maven-publish")
+    java
+}
+
+val modMajor = project.properties["mod_major_version"]
+val modMinor = project.properties["mod_minor_version"]
+
+version = "$modMajor$modMinor"
+group = "cc.polyfrost"
+
+base {
+    archivesName.set("oneconfig-processor")
+}
+
+java {
+    toolchain.languageVersion.set(JavaLanguageVersion.of(8))
+    withSourcesJar()
+}
+
+repositories {
+    mavenCentral()
+    maven("https://repo.polyfrost.cc/releases")
+}
+
+// A config with 500 options, loaded by the benchmark with and without the generated code
+val generateBenchmarkConfig by tasks.registering {
+    val output = layout.buildDirectory.dir("generated/sources/benchmarkConfig")
+    outputs.dir(output)
+    doLast {
+        val file = output.get().file("cc/polyfrost/oneconfig/processor/benchmark/LargeConfig.java").asFile
+        file.parentFile.mkdirs()
+        file.writeText(buildString {
+            appendLine("package cc.polyfrost.oneconfig.processor.benchmark;")
+            appendLine()
+            appendLine("import cc.polyfrost.oneconfig.config.Config;")
+            appendLine("import cc.polyfrost.oneconfig.config.annotations.*;")
+            appendLine()
+            appendLine("public class LargeConfig extends Config {")
+            for (i in 0 until 500) {
+                when (i % 5) {
+                    0 -> appendLine("    @Switch(name = \"Switch $i\", category = \"Category ${i / 50}\")\n    public boolean option$i = ${i % 2 == 0};")
+                    1 -> appendLine("    @Slider(name = \"Slider $i\", min = 0, max = 100, category = \"Category ${i / 50}\")\n    public float option$i = $i;")
+                    2 -> appendLine("    @Text(name = \"Text $i\", category = \"Category ${i / 50}\")\n    public String option$i = \"text $i\";")
+                    3 -> appendLine("    @Dropdown(name = \"Dropdown $i\", options = {\"A\", \"B\", \"C\"}, category = \"Category ${i / 50}\")\n    public int option$i = ${i % 3};")
+                    else -> appendLine("    @Checkbox(name = \"Checkbox $i\", category = \"Category ${i / 50}\", subcategory = \"Subcategory ${i % 10}\")\n    public static boolean option$i;")
+                }
+            }
+            appendLine()
+            appendLine("    public LargeConfig() {")
+            appendLine("        super(null, \"benchmark.json\");")
+            appendLine("    }")
+            appendLine()
+            appendLine("    public void roundTrip() {")
+            appendLine("        gson.fromJson(gson.toJsonTree(this), getClass());")
+            appendLine("        nonProfileSpecificGson.fromJson(nonProfileSpecificGson.toJsonTree(this), getClass());")
+            appendLine("    }")
+            appendLine("}")
+        })
+    }
+}
+
+sourceSets.named("jmh") {
+    java.srcDir(generateBenchmarkConfig)
+}
+
+dependencies {
+    // the benchmark runs OneConfig's common code, with the libraries Minecraft would provide
+    jmhImplementation(rootProject)
+    jmhImplementation("com.google.code.gson:gson:2.2.4")
+    jmhImplementation("org.apache.logging.log4j:log4j-core:2.0-beta9")
+    jmhImplementation("org.apache.logging.log4j:log4j-api:2.0-beta9")
+    jmhImplementation("org.jetbrains:annotations:24.0.1")
+    jmhAnnotationProcessor(project)
+}
+
+jmh {
+    // loading a config happens once per game start, so every measurement is the first load in a new JVM
+    benchmarkMode.set(listOf("ss"))
+    timeUnit.set("ms")
+    warmupIterations.set(0)
+    iterations.set(1)
+    fork.set(20)
+}
+
+publishing {
+    publications {
+        register<MavenPublication>("oneconfig-processor") {
+            groupId = "cc.polyfrost"
+            artifactId = base.archivesName.get()
+
+            from(components["java"])
+        }
+    }
+
+    repositories {
+        maven {
+            name = "releases"
+            url = uri("https://repo.polyfrost.cc/releases")
+            credentials(PasswordCredentials::class)
+            authentication {
+                create<BasicAuthentication>("basic")
+            }
+        }
+        maven {
+            name = "snapshots"
+            url = uri("https://repo.polyfrost.cc/snapshots")
+            credentials(PasswordCredentials::class)
+            authentication {
+                create<BasicAuthentication>("basic")
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.processor.benchmark;
+
+import cc.polyfrost.oneconfig.internal.config.core.ConfigClassMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the first load of a config with 500 options in a new JVM, with and without the code generated by
+ * {@link cc.polyfrost.oneconfig.processor.ConfigProcessor}. Run with {@code ./gradlew :processor:jmh}.
+ */
+public class ConfigLoadBenchmark {
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Doneconfig.generatedConfigCode=true")
+    public void withGeneratedCode(Blackhole blackhole) {
+        load(blackhole);
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Doneconfig.generatedConfigCode=false")
+    public void withoutGeneratedCode(Blackhole blackhole) {
+        load(blackhole);
+    }
+
+    private static void load(Blackhole blackhole) {
+        blackhole.consume(ConfigClassMetadata.get(LargeConfig.class));
+        LargeConfig config = new LargeConfig();
+        config.roundTrip();
+        blackhole.consume(config);
+    }
+}
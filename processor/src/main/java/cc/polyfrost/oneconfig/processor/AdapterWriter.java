@@ -0,0 +1,390 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a Gson {@code TypeAdapter} for a {@code Config} subclass, which reads and writes its fields directly instead
+ * of through Gson's reflection.
+ * <p>
+ * The adapter writes the same JSON as the Gson instances of {@code Config}: the same fields in the same order, left out
+ * by the same rules as {@code ProfileExclusionStrategy} and {@code NonProfileSpecificExclusionStrategy}, with the values
+ * written by the adapters of the Gson instance. Fields which can't be accessed from the generated class, and final
+ * instance fields when reading, are accessed through reflection. When a field has a type which can't be named from the
+ * generated class, or two fields have the same name, no adapter is generated and OneConfig keeps using reflection.
+ */
+class AdapterWriter {
+    private final ProcessingEnvironment env;
+    private final Elements elements;
+    private final Types types;
+    private final TypeElement type;
+    private final PackageElement pkg;
+    private final List<SerializedField> fields = new ArrayList<>();
+
+    AdapterWriter(ProcessingEnvironment env, TypeElement type) {
+        this.env = env;
+        this.elements = env.getElementUtils();
+        this.types = env.getTypeUtils();
+        this.type = type;
+        this.pkg = elements.getPackageOf(type);
+    }
+
+    void write() throws IOException {
+        if (type.getModifiers().contains(Modifier.ABSTRACT) || !type.getTypeParameters().isEmpty()) return;
+        if (!ConfigProcessor.isAccessible(type, pkg, elements)) {
+            skip("it can't be accessed from its package");
+            return;
+        }
+        if (!collectFields()) return;
+        String name = ConfigProcessor.getGeneratedName(elements, type, ConfigProcessor.ADAPTER_SUFFIX);
+        ConfigProcessor.write(env.getFiler(), pkg, name, generate(name), type);
+    }
+
+    private void skip(String reason) {
+        env.getMessager().printMessage(Diagnostic.Kind.NOTE, "Not generating a Gson adapter for " + type.getQualifiedName() + ", because " + reason + ". OneConfig will use reflection for it.", type);
+    }
+
+    /**
+     * Collect the fields Gson would serialize, starting with the class itself and then its superclasses.
+     *
+     * @return if an adapter can be generated for the fields
+     */
+    private boolean collectFields() {
+        Set<String> profileNames = new HashSet<>();
+        Set<String> nonProfileNames = new HashSet<>();
+        int depth = 0;
+        for (TypeElement current = type; current != null; current = getSuperclass(current), depth++) {
+            for (VariableElement element : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                if (element.getModifiers().contains(Modifier.TRANSIENT)) continue;
+                boolean profile = !skipField(element, true);
+                boolean nonProfile = !skipField(element, false);
+                if (!profile && !nonProfile) continue;
+                SerializedField field = new SerializedField(fields.size(), element, current, depth, profile, nonProfile);
+                if (field.typeSource == null) {
+                    skip("the type of " + current.getSimpleName() + "." + element.getSimpleName() + " can't be named from the generated class");
+                    return false;
+                }
+                if ((profile && !profileNames.add(field.name)) || (nonProfile && !nonProfileNames.add(field.name))) {
+                    skip("it declares multiple fields named " + field.name);
+                    return false;
+                }
+                fields.add(field);
+            }
+        }
+        return true;
+    }
+
+    private TypeElement getSuperclass(TypeElement element) {
+        TypeMirror superclass = element.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) return null;
+        TypeElement superElement = (TypeElement) types.asElement(superclass);
+        return superElement.getQualifiedName().contentEquals("java.lang.Object") ? null : superElement;
+    }
+
+    /**
+     * The same rules as {@code ProfileExclusionStrategy} and {@code NonProfileSpecificExclusionStrategy}.
+     */
+    private boolean skipField(VariableElement field, boolean profileSpecific) {
+        TypeMirror fieldType = types.erasure(field.asType());
+        if (fieldType.getKind() == TypeKind.DECLARED) {
+            TypeElement fieldClass = (TypeElement) types.asElement(fieldType);
+            if (isSubclass(fieldType, ConfigProcessor.CONFIG) || isSubclass(fieldType, ConfigProcessor.GUI_PAGE)) return true;
+            String name = fieldClass.getQualifiedName().toString();
+            if (name.equals("java.lang.Object") || name.equals("java.lang.Runnable")) return true;
+            if (ConfigProcessor.hasAnnotation(fieldClass, ConfigProcessor.EXCLUDE)) return true;
+        }
+        if (profileSpecific) {
+            return ConfigProcessor.hasAnnotation(field, ConfigProcessor.NON_PROFILE_SPECIFIC) || ConfigProcessor.hasAnnotation(field, ConfigProcessor.HYPIXEL_KEY)
+                    || ConfigProcessor.hasAnnotation(field, ConfigProcessor.SUB_CONFIG) || ConfigProcessor.hasAnnotation(field, ConfigProcessor.EXCLUDE);
+        }
+        if (ConfigProcessor.hasAnnotation(field, ConfigProcessor.EXCLUDE)) return true;
+        return !ConfigProcessor.hasAnnotation(field, ConfigProcessor.NON_PROFILE_SPECIFIC) && !ConfigProcessor.hasAnnotation(field, ConfigProcessor.HYPIXEL_KEY);
+    }
+
+    private boolean isSubclass(TypeMirror fieldType, String className) {
+        TypeElement parent = elements.getTypeElement(className);
+        if (parent == null || parent.getKind() != ElementKind.CLASS || types.asElement(fieldType).getKind() != ElementKind.CLASS) return false;
+        return types.isSubtype(fieldType, types.erasure(parent.asType()));
+    }
+
+    private String generate(String name) {
+        String typeName = type.getQualifiedName().toString();
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by OneConfig's annotation processor, do not edit\n");
+        if (!pkg.isUnnamed()) out.append("package ").append(pkg.getQualifiedName()).append(";\n");
+        out.append("\n/**\n * Reads and writes {@link ").append(typeName).append("} without reflection, used by OneConfig instead of Gson's reflection.\n */\n");
+        out.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        out.append("public final class ").append(name).append(" extends com.google.gson.TypeAdapter<").append(typeName).append("> {\n");
+        for (SerializedField field : fields) {
+            if (!field.direct || (field.isFinal && !field.isStatic)) {
+                out.append("    private static final java.lang.reflect.Field field").append(field.index).append(" = field(")
+                        .append(field.depth).append(", \"").append(field.element.getSimpleName()).append("\");\n");
+            }
+        }
+        out.append("    private final com.google.gson.Gson gson;\n");
+        out.append("    private final ").append(typeName).append(" instance;\n");
+        out.append("    private final boolean profileSpecific;\n");
+        for (SerializedField field : fields) {
+            out.append("    private final com.google.gson.TypeAdapter<").append(field.boxedSource()).append("> adapter").append(field.index).append(";\n");
+        }
+        out.append("\n    /**\n     * @param gson            The Gson instance which writes the values of the fields\n");
+        out.append("     * @param instance        The config, which is read into\n");
+        out.append("     * @param profileSpecific If the profile specific fields are read and written, or the other ones\n     */\n");
+        out.append("    public ").append(name).append("(com.google.gson.Gson gson, ").append(typeName).append(" instance, boolean profileSpecific) {\n");
+        out.append("        this.gson = gson;\n        this.instance = instance;\n        this.profileSpecific = profileSpecific;\n");
+        for (SerializedField field : fields) {
+            out.append("        adapter").append(field.index).append(" = gson.getAdapter(").append(field.typeToken()).append(");\n");
+        }
+        out.append("    }\n\n");
+
+        out.append("    @Override\n    public void write(com.google.gson.stream.JsonWriter out, ").append(typeName).append(" value) throws java.io.IOException {\n");
+        out.append("        if (value == null) {\n            out.nullValue();\n            return;\n        }\n");
+        out.append("        out.beginObject();\n        try {\n");
+        out.append("            if (profileSpecific) writeProfileSpecific(out, value);\n            else writeNonProfileSpecific(out, value);\n");
+        out.append("        } catch (IllegalAccessException e) {\n            throw new IllegalStateException(e);\n        }\n");
+        out.append("        out.endObject();\n    }\n\n");
+
+        out.append("    @Override\n    public ").append(typeName).append(" read(com.google.gson.stream.JsonReader in) throws java.io.IOException {\n");
+        out.append("        if (in.peek() == com.google.gson.stream.JsonToken.NULL) {\n            in.nextNull();\n            return null;\n        }\n");
+        out.append("        in.beginObject();\n        try {\n            while (in.hasNext()) {\n                java.lang.String name = in.nextName();\n");
+        out.append("                if (profileSpecific) readProfileSpecific(in, name);\n                else readNonProfileSpecific(in, name);\n            }\n");
+        out.append("        } catch (IllegalAccessException e) {\n            throw new IllegalStateException(e);\n        }\n");
+        out.append("        in.endObject();\n        return instance;\n    }\n");
+
+        for (boolean profile : new boolean[]{true, false}) {
+            String suffix = profile ? "ProfileSpecific" : "NonProfileSpecific";
+            out.append("\n    private void write").append(suffix).append("(com.google.gson.stream.JsonWriter out, ").append(typeName)
+                    .append(" value) throws java.io.IOException, IllegalAccessException {\n");
+            for (SerializedField field : fields) {
+                if (profile ? field.profile : field.nonProfile) field.appendWrite(out);
+            }
+            out.append("    }\n");
+            out.append("\n    private void read").append(suffix).append("(com.google.gson.stream.JsonReader in, java.lang.String name) throws java.io.IOException, IllegalAccessException {\n");
+            out.append("        ").append(typeName).append(" value = instance;\n        switch (name) {\n");
+            for (SerializedField field : fields) {
+                if (profile ? field.profile : field.nonProfile) field.appendRead(out);
+            }
+            out.append("            default:\n                in.skipValue();\n        }\n    }\n");
+        }
+
+        out.append("\n    private <T> void write(com.google.gson.stream.JsonWriter out, com.google.gson.TypeAdapter<T> adapter, java.lang.Class<T> type, T value) throws java.io.IOException {\n");
+        out.append("        // like Gson, use the adapter of the runtime type for subclasses of the declared type\n");
+        out.append("        if (value != null && value.getClass() != type) ((com.google.gson.TypeAdapter) gson.getAdapter(value.getClass())).write(out, value);\n");
+        out.append("        else adapter.write(out, value);\n    }\n");
+        out.append("\n    private static java.lang.reflect.Field field(int depth, java.lang.String name) {\n");
+        out.append("        java.lang.Class<?> clazz = ").append(typeName).append(".class;\n");
+        out.append("        for (int i = 0; i < depth; i++) clazz = clazz.getSuperclass();\n");
+        out.append("        try {\n            java.lang.reflect.Field field = clazz.getDeclaredField(name);\n            field.setAccessible(true);\n            return field;\n");
+        out.append("        } catch (NoSuchFieldException e) {\n            throw new IllegalStateException(e);\n        }\n    }\n}\n");
+        return out.toString();
+    }
+
+    private class SerializedField {
+        final int index;
+        final VariableElement element;
+        final TypeElement owner;
+        final int depth;
+        final boolean profile;
+        final boolean nonProfile;
+        final String name;
+        final TypeMirror fieldType;
+        final String typeSource;
+        final boolean isStatic;
+        final boolean isFinal;
+        final boolean direct;
+
+        SerializedField(int index, VariableElement element, TypeElement owner, int depth, boolean profile, boolean nonProfile) {
+            this.index = index;
+            this.element = element;
+            this.owner = owner;
+            this.depth = depth;
+            this.profile = profile;
+            this.nonProfile = nonProfile;
+            this.name = getSerializedName(element);
+            this.fieldType = element.asType();
+            this.typeSource = getSource(fieldType);
+            this.isStatic = element.getModifiers().contains(Modifier.STATIC);
+            this.isFinal = element.getModifiers().contains(Modifier.FINAL);
+            this.direct = ConfigProcessor.isAccessible(element, pkg, elements) && owner.getTypeParameters().isEmpty();
+        }
+
+        boolean isPrimitive() {
+            return fieldType.getKind().isPrimitive();
+        }
+
+        String boxedSource() {
+            return isPrimitive() ? types.boxedClass(types.getPrimitiveType(fieldType.getKind())).getQualifiedName().toString() : typeSource;
+        }
+
+        String typeToken() {
+            if (typeSource.indexOf('<') < 0) return typeSource + ".class";
+            return "new com.google.gson.reflect.TypeToken<" + typeSource + ">() {}";
+        }
+
+        /**
+         * @return if a value of a subclass of the declared type can be written, in which case Gson uses the adapter of
+         * the runtime type
+         */
+        boolean hasRuntimeType() {
+            if (fieldType.getKind() != TypeKind.DECLARED || !((DeclaredType) fieldType).getTypeArguments().isEmpty()) return false;
+            TypeElement element = (TypeElement) types.asElement(fieldType);
+            return element.getKind() != ElementKind.ENUM && !element.getModifiers().contains(Modifier.FINAL);
+        }
+
+        String access() {
+            String owner = this.owner.getQualifiedName().toString();
+            if (isStatic) return owner + "." + element.getSimpleName();
+            if (depth == 0) return "value." + element.getSimpleName();
+            return "((" + owner + ") value)." + element.getSimpleName();
+        }
+
+        String get() {
+            if (direct) return access();
+            return "(" + boxedSource() + ") field" + index + ".get(" + (isStatic ? "null" : "value") + ")";
+        }
+
+        void appendWrite(StringBuilder out) {
+            out.append("        out.name(\"").append(name).append("\");\n");
+            // floats and doubles go through their adapter, which checks for NaN and infinity
+            TypeKind kind = fieldType.getKind();
+            String value = get();
+            if (kind == TypeKind.BOOLEAN && direct) out.append("        out.value(").append(value).append(");\n");
+            else if ((kind == TypeKind.INT || kind == TypeKind.LONG || kind == TypeKind.SHORT || kind == TypeKind.BYTE) && direct) out.append("        out.value((java.lang.Number) ").append(value).append(");\n");
+            else if (typeSource.equals("java.lang.String")) out.append("        out.value(").append(value).append(");\n");
+            else if (hasRuntimeType()) out.append("        write(out, adapter").append(index).append(", ").append(typeSource).append(".class, ").append(value).append(");\n");
+            else out.append("        adapter").append(index).append(".write(out, ").append(value).append(");\n");
+        }
+
+        void appendRead(StringBuilder out) {
+            out.append("            case \"").append(name).append("\": {\n");
+            if (isStatic && isFinal) {
+                // Gson can't set these either
+                out.append("                in.skipValue();\n");
+            } else {
+                out.append("                ").append(boxedSource()).append(" read = adapter").append(index).append(".read(in);\n");
+                String set;
+                if (direct && !isFinal) set = access() + " = read;";
+                else set = "field" + index + ".set(" + (isStatic ? "null" : "value") + ", read);";
+                if (isPrimitive()) out.append("                if (read != null) ").append(set).append("\n");
+                else out.append("                ").append(set).append("\n");
+            }
+            out.append("                break;\n            }\n");
+        }
+    }
+
+    private String getSerializedName(VariableElement field) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (!ConfigProcessor.getType(mirror).getQualifiedName().contentEquals(ConfigProcessor.SERIALIZED_NAME)) continue;
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("value")) return escape(entry.getValue().getValue().toString());
+            }
+        }
+        return field.getSimpleName().toString();
+    }
+
+    private static String escape(String name) {
+        return name.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * @return the type as it is written in source, or null if it can't be named from the generated class
+     */
+    private String getSource(TypeMirror mirror) {
+        switch (mirror.getKind()) {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case CHAR:
+            case FLOAT:
+            case DOUBLE:
+                return mirror.getKind().name().toLowerCase(Locale.ROOT);
+            case ARRAY: {
+                String component = getSource(((ArrayType) mirror).getComponentType());
+                return component == null ? null : component + "[]";
+            }
+            case DECLARED: {
+                DeclaredType declared = (DeclaredType) mirror;
+                TypeElement element = (TypeElement) declared.asElement();
+                if (!ConfigProcessor.isAccessible(element, pkg, elements)) return null;
+                TypeMirror enclosing = declared.getEnclosingType();
+                if (enclosing.getKind() == TypeKind.DECLARED && !((DeclaredType) enclosing).getTypeArguments().isEmpty()) return null;
+                StringBuilder source = new StringBuilder(element.getQualifiedName());
+                List<? extends TypeMirror> arguments = declared.getTypeArguments();
+                if (arguments.isEmpty()) return source.toString();
+                source.append('<');
+                for (int i = 0; i < arguments.size(); i++) {
+                    String argument = getSource(arguments.get(i));
+                    if (argument == null) return null;
+                    if (i > 0) source.append(", ");
+                    source.append(argument);
+                }
+                return source.append('>').toString();
+            }
+            case WILDCARD: {
+                WildcardType wildcard = (WildcardType) mirror;
+                if (wildcard.getExtendsBound() != null) {
+                    String bound = getSource(wildcard.getExtendsBound());
+                    return bound == null ? null : "? extends " + bound;
+                }
+                if (wildcard.getSuperBound() != null) {
+                    String bound = getSource(wildcard.getSuperBound());
+                    return bound == null ? null : "? super " + bound;
+                }
+                return "?";
+            }
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates code which replaces the reflection OneConfig does for config classes. Add it to the annotation processors
+ * of a mod to use it, OneConfig keeps using reflection for every class it didn't generate code for.
+ * <p>
+ * For every class with option fields or buttons, and every {@code Config} subclass, a class named
+ * {@code <class name>_OneConfigOptions} is generated. It holds a table with the name, kind and annotation type of every
+ * option field and the names of the button methods, which OneConfig reads instead of scanning the annotations of every
+ * field and method of the class.
+ * <p>
+ * For every {@code Config} subclass which isn't abstract or generic, a Gson {@code TypeAdapter} named
+ * {@code <class name>_OneConfigAdapter} is generated as well, see {@link AdapterWriter}.
+ */
+@SupportedAnnotationTypes("*")
+public class ConfigProcessor extends AbstractProcessor {
+    static final String CONFIG = "cc.polyfrost.oneconfig.config.Config";
+    static final String GUI_PAGE = "cc.polyfrost.oneconfig.gui.pages.Page";
+    static final String OPTION = "cc.polyfrost.oneconfig.internal.config.annotations.Option";
+    static final String CUSTOM_OPTION = "cc.polyfrost.oneconfig.config.annotations.CustomOption";
+    static final String PAGE = "cc.polyfrost.oneconfig.config.annotations.Page";
+    static final String HUD = "cc.polyfrost.oneconfig.config.annotations.HUD";
+    static final String SUB_CONFIG = "cc.polyfrost.oneconfig.config.annotations.SubConfig";
+    static final String BUTTON = "cc.polyfrost.oneconfig.config.annotations.Button";
+    static final String EXCLUDE = "cc.polyfrost.oneconfig.config.annotations.Exclude";
+    static final String NON_PROFILE_SPECIFIC = "cc.polyfrost.oneconfig.config.annotations.NonProfileSpecific";
+    static final String HYPIXEL_KEY = "cc.polyfrost.oneconfig.config.annotations.HypixelKey";
+    static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+    // these have to match GeneratedConfigCode in OneConfig
+    static final String OPTIONS_SUFFIX = "_OneConfigOptions";
+    static final String ADAPTER_SUFFIX = "_OneConfigAdapter";
+
+    private Elements elements;
+    private Types types;
+    private Filer filer;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        filer = processingEnv.getFiler();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement config = elements.getTypeElement(CONFIG);
+        if (config == null) return false;
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            process(type, config);
+        }
+        return false;
+    }
+
+    private void process(TypeElement type, TypeElement config) {
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            process(nested, config);
+        }
+        if (type.getKind() != ElementKind.CLASS) return;
+        boolean isConfig = types.isSubtype(types.erasure(type.asType()), types.erasure(config.asType()));
+        List<String[]> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            String[] row = getOptionRow(field);
+            if (row != null) fields.add(row);
+        }
+        List<String> buttons = getButtons(type);
+        if (!isConfig && fields.isEmpty() && (buttons == null || buttons.isEmpty())) return;
+        try {
+            writeOptions(type, fields, buttons);
+            if (isConfig) new AdapterWriter(processingEnv, type).write();
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write the generated code of " + type + ": " + e, type);
+        }
+    }
+
+    /**
+     * Find the kind of option a field is, the same way OneConfig does at runtime.
+     *
+     * @return the name, kind and annotation type of the field, or null if it isn't an option
+     */
+    private String[] getOptionRow(VariableElement field) {
+        List<? extends AnnotationMirror> mirrors = field.getAnnotationMirrors();
+        for (AnnotationMirror mirror : mirrors) {
+            TypeElement type = getType(mirror);
+            if (hasAnnotation(type, OPTION)) return row(field, "OPTION", type);
+        }
+        for (AnnotationMirror mirror : mirrors) {
+            TypeElement type = getType(mirror);
+            if (type.getQualifiedName().contentEquals(CUSTOM_OPTION)) return row(field, "CUSTOM_OPTION", type);
+        }
+        for (AnnotationMirror mirror : mirrors) {
+            TypeElement type = getType(mirror);
+            if (hasAnnotation(type, CUSTOM_OPTION)) return row(field, "CUSTOM_OPTION", type);
+        }
+        String[][] kinds = {{PAGE, "PAGE"}, {HUD, "HUD"}, {SUB_CONFIG, "SUB_CONFIG"}};
+        for (String[] kind : kinds) {
+            for (AnnotationMirror mirror : mirrors) {
+                TypeElement type = getType(mirror);
+                if (type.getQualifiedName().contentEquals(kind[0])) return row(field, kind[1], type);
+            }
+        }
+        return null;
+    }
+
+    private String[] row(VariableElement field, String kind, TypeElement annotation) {
+        return new String[]{field.getSimpleName().toString(), kind, elements.getBinaryName(annotation).toString()};
+    }
+
+    /**
+     * @return the names of the button methods of the type, or null if one of them can't be found by its name alone
+     */
+    private List<String> getButtons(TypeElement type) {
+        List<String> buttons = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            boolean direct = false;
+            boolean meta = false;
+            for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+                TypeElement annotation = getType(mirror);
+                if (annotation.getQualifiedName().contentEquals(BUTTON)) direct = true;
+                else if (hasAnnotation(annotation, BUTTON)) meta = true;
+            }
+            if (!direct && !meta) continue;
+            if (meta || !method.getParameters().isEmpty()) return null;
+            buttons.add(method.getSimpleName().toString());
+        }
+        return buttons;
+    }
+
+    private void writeOptions(TypeElement type, List<String[]> fields, List<String> buttons) throws IOException {
+        PackageElement pkg = elements.getPackageOf(type);
+        String name = getGeneratedName(elements, type, OPTIONS_SUFFIX);
+        StringBuilder source = new StringBuilder();
+        source.append("// Generated by OneConfig's annotation processor, do not edit\n");
+        if (!pkg.isUnnamed()) source.append("package ").append(pkg.getQualifiedName()).append(";\n");
+        source.append("\n/**\n * The option fields and buttons of {@code ").append(type.getQualifiedName()).append("}, read by OneConfig instead of scanning the class.\n */\n");
+        source.append("public final class ").append(name).append(" {\n");
+        source.append("    /**\n     * The name, kind and annotation type of every option field, in declaration order\n     */\n");
+        source.append("    public static final java.lang.String[] FIELDS = {\n");
+        for (String[] row : fields) {
+            source.append("            \"").append(row[0]).append("\", \"").append(row[1]).append("\", \"").append(row[2]).append("\",\n");
+        }
+        source.append("    };\n");
+        if (buttons != null) {
+            source.append("    /**\n     * The names of the button methods, which don't take parameters\n     */\n");
+            source.append("    public static final java.lang.String[] BUTTONS = {\n");
+            for (String button : buttons) {
+                source.append("            \"").append(button).append("\",\n");
+            }
+            source.append("    };\n");
+        }
+        source.append("\n    private ").append(name).append("() {\n    }\n}\n");
+        write(filer, pkg, name, source, type);
+    }
+
+    static TypeElement getType(AnnotationMirror mirror) {
+        return (TypeElement) mirror.getAnnotationType().asElement();
+    }
+
+    static boolean hasAnnotation(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (getType(mirror).getQualifiedName().contentEquals(annotation)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the simple name of the class generated for a type, which is its binary name without the package and with
+     * {@code $} replaced by {@code _}, followed by the suffix
+     */
+    static String getGeneratedName(Elements elements, TypeElement type, String suffix) {
+        String binaryName = elements.getBinaryName(type).toString();
+        return binaryName.substring(binaryName.lastIndexOf('.') + 1).replace('$', '_') + suffix;
+    }
+
+    static void write(Filer filer, PackageElement pkg, String name, CharSequence source, Element origin) throws IOException {
+        String qualifiedName = pkg.isUnnamed() ? name : pkg.getQualifiedName() + "." + name;
+        try (Writer writer = filer.createSourceFile(qualifiedName, origin).openWriter()) {
+            writer.append(source);
+        }
+    }
+
+    static boolean isAccessible(Element element, PackageElement pkg, Elements elements) {
+        for (Element current = element; current != null && current.getKind() != ElementKind.PACKAGE; current = current.getEnclosingElement()) {
+            Set<Modifier> modifiers = current.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE)) return false;
+            if (!modifiers.contains(Modifier.PUBLIC) && !elements.getPackageOf(current).equals(pkg)) return false;
+        }
+        return true;
+    }
+}
@@ -30,6 +30,8 @@ val mod_name: String by settings
 
 rootProject.name = mod_name
 
+include(":processor")
+
 include(":platform")
 project(":platform").apply {
     projectDir = file("versions/")
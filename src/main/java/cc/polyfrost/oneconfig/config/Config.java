@@ -26,17 +26,15 @@
 
 package cc.polyfrost.oneconfig.config;
 
-import cc.polyfrost.oneconfig.config.annotations.Button;
 import cc.polyfrost.oneconfig.config.annotations.CustomOption;
-import cc.polyfrost.oneconfig.config.annotations.HUD;
 import cc.polyfrost.oneconfig.config.annotations.Page;
-import cc.polyfrost.oneconfig.config.annotations.SubConfig;
 import cc.polyfrost.oneconfig.config.core.ConfigUtils;
 import cc.polyfrost.oneconfig.config.core.OneKeyBind;
 import cc.polyfrost.oneconfig.config.data.Mod;
 import cc.polyfrost.oneconfig.config.data.ModType;
 import cc.polyfrost.oneconfig.config.data.PageLocation;
 import cc.polyfrost.oneconfig.config.elements.BasicOption;
+import cc.polyfrost.oneconfig.config.elements.OptionCategory;
 import cc.polyfrost.oneconfig.config.elements.OptionPage;
 import cc.polyfrost.oneconfig.config.elements.OptionSubcategory;
 import cc.polyfrost.oneconfig.config.gson.InstanceSupplier;
@@ -49,49 +47,56 @@ import cc.polyfrost.oneconfig.gui.pages.ModConfigPage;
 import cc.polyfrost.oneconfig.hud.HUDUtils;
 import cc.polyfrost.oneconfig.internal.config.SubMainConfig;
 import cc.polyfrost.oneconfig.internal.config.annotations.Option;
+import cc.polyfrost.oneconfig.internal.config.core.ConfigClassMetadata;
 import cc.polyfrost.oneconfig.internal.config.core.ConfigCore;
+import cc.polyfrost.oneconfig.internal.config.core.ConfigHasher;
+import cc.polyfrost.oneconfig.internal.config.core.ConfigReader;
+import cc.polyfrost.oneconfig.internal.config.core.ConfigWriter;
+import cc.polyfrost.oneconfig.internal.config.core.GeneratedConfigCode;
 import cc.polyfrost.oneconfig.internal.config.core.KeyBindHandler;
+import cc.polyfrost.oneconfig.internal.config.core.OptionSearch;
 import cc.polyfrost.oneconfig.internal.utils.Deprecator;
 import cc.polyfrost.oneconfig.utils.gui.GuiUtils;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Contract;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 
 @SuppressWarnings({"unused", "ResultOfMethodCallIgnored"})
 public class Config {
     public final transient HashMap<String, BasicOption> optionNames = new HashMap<>();
     protected final transient String configFile;
-    protected final transient Gson gson = addGsonOptions(new GsonBuilder()
-            .setExclusionStrategies(new ProfileExclusionStrategy()))
+    protected final transient Gson gson = addGsonOptions(GeneratedConfigCode.registerAdapter(new GsonBuilder()
+            .setExclusionStrategies(new ProfileExclusionStrategy()), this, true))
             .create();
-    protected final transient Gson nonProfileSpecificGson = addGsonOptions(new GsonBuilder()
-            .setExclusionStrategies(new NonProfileSpecificExclusionStrategy()))
+    protected final transient Gson nonProfileSpecificGson = addGsonOptions(GeneratedConfigCode.registerAdapter(new GsonBuilder()
+            .setExclusionStrategies(new NonProfileSpecificExclusionStrategy()), this, false))
             .create();
     public final transient Mod mod;
     public boolean enabled;
     public final boolean canToggle;
 
     private final transient Logger logger;
+    private transient volatile boolean dirty = true;
+    private transient Path savedPath = null;
+    private transient JsonElement savedProfileSnapshot = null;
+    private transient JsonElement savedNonProfileSpecificSnapshot = null;
+    private transient int savedHash;
+    private transient int cleanChecks;
 
     /**
      * @param modData    information about the mod
@@ -121,6 +126,8 @@ public class Config {
 
     public void initialize() {
         logger.trace("Initializing config for {}...", mod.name);
+        // the first config to be initialized starts reading the files of all configs in the background
+        ConfigReader.prefetch(ConfigUtils.getProfileDir(), ConfigUtils.getNonSpecificProfileDir());
 
         boolean migrate = false;
         File profileFile = ConfigUtils.getProfileFile(configFile);
@@ -134,10 +141,12 @@ public class Config {
 
         mod.config = this;
         generateOptionList(this, mod.defaultPage, mod, migrate);
+        registerOptions(mod.defaultPage);
         if (migrate) save();
 
         logger.trace("Config for {} initialized", mod.name);
         ConfigCore.mods.add(mod);
+        OptionSearch.index(mod);
     }
 
     public void reInitialize() {
@@ -151,33 +160,75 @@ public class Config {
     }
 
     /**
-     * Save current config to file
+     * Save current config to file. The values of the config are copied right away, encoding and writing them is done in
+     * the background.
      */
     public void save() {
         logger.trace("Saving config for {}...", mod.name);
+        write(gson.toJsonTree(this), nonProfileSpecificGson.toJsonTree(this));
+    }
+
+    /**
+     * Save the config to file if it changed since it was last saved. A dirty config is saved right away. Changes which
+     * didn't mark the config as dirty, such as fields set directly, are found by a hash of the values of the config,
+     * and every few checks by comparing a copy of the values with the one which was saved, which also finds changes
+     * inside objects the hash can't look into.
+     *
+     * @return whether the config was saved
+     * @see #markDirty()
+     */
+    public boolean saveIfDirty() {
+        if (dirty || !ConfigUtils.getProfileFile(configFile).toPath().equals(savedPath)) {
+            logger.trace("Saving changed config for {}...", mod.name);
+            write(gson.toJsonTree(this), nonProfileSpecificGson.toJsonTree(this));
+            return true;
+        }
+        int hash = ConfigHasher.hash(this);
+        if (hash == savedHash && ++cleanChecks < ConfigHasher.FULL_CHECK_INTERVAL) return false;
+        cleanChecks = 0;
+        JsonElement profileSnapshot = gson.toJsonTree(this);
+        JsonElement nonProfileSpecificSnapshot = nonProfileSpecificGson.toJsonTree(this);
+        if (profileSnapshot.equals(savedProfileSnapshot) && nonProfileSpecificSnapshot.equals(savedNonProfileSpecificSnapshot)) {
+            // the hash changed for values which aren't saved
+            savedHash = hash;
+            return false;
+        }
+        logger.trace("Saving changed config for {}...", mod.name);
+        write(profileSnapshot, nonProfileSpecificSnapshot);
+        return true;
+    }
+
+    /**
+     * Mark the config as changed, so the next autosave writes it. This is done automatically when an option is changed
+     * in the GUI, call it after changing options from code.
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * @return whether the config was changed since it was last saved, as far as it is known without comparing it
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
 
+    private void write(JsonElement profileSnapshot, JsonElement nonProfileSpecificSnapshot) {
         Path profilePath = ConfigUtils.getProfileFile(configFile).toPath();
         Path nonProfileSpecificPath = ConfigUtils.getNonProfileSpecificFile(configFile).toPath();
 
         logger.trace("Saving to:\n\t{}\n\t{}", profilePath, nonProfileSpecificPath);
 
-        try {
-            Files.createDirectories(profilePath.getParent());
-            Files.createDirectories(nonProfileSpecificPath.getParent());
-        } catch (IOException e) {
-            logger.error("Failed to create directories for config file", e);
-        }
-
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(profilePath), StandardCharsets.UTF_8))) {
-            writer.write(gson.toJson(this));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(nonProfileSpecificPath), StandardCharsets.UTF_8))) {
-            writer.write(nonProfileSpecificGson.toJson(this));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        // cleared before writing, so changes made while writing are saved next time
+        dirty = false;
+        savedPath = profilePath;
+        savedProfileSnapshot = profileSnapshot;
+        savedNonProfileSpecificSnapshot = nonProfileSpecificSnapshot;
+        savedHash = ConfigHasher.hash(this);
+        cleanChecks = 0;
+        // the snapshots aren't modified after this, so they can be encoded on the writer thread
+        ConfigWriter.write(profilePath, profileSnapshot, gson, this::markDirty);
+        ConfigWriter.write(nonProfileSpecificPath, nonProfileSpecificSnapshot, nonProfileSpecificGson, this::markDirty);
     }
 
     /**
@@ -191,19 +242,31 @@ public class Config {
 
         logger.trace("Loading from:\n\t{}\n\t{}", profilePath, nonProfileSpecificPath);
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(profilePath), StandardCharsets.UTF_8))) {
-            gson.fromJson(reader, this.getClass());
+        // pending saves of these files have to be written before they are read
+        ConfigWriter.flush(profilePath, nonProfileSpecificPath);
+        load(gson, profilePath);
+        load(nonProfileSpecificGson, nonProfileSpecificPath);
+    }
+
+    /**
+     * Load a config file. If it can't be read, it is renamed and its backup is loaded instead.
+     */
+    private void load(Gson gson, Path path) {
+        try {
+            gson.fromJson(ConfigReader.read(path), this.getClass());
+            return;
         } catch (Exception e) {
             e.printStackTrace();
-            File file = ConfigUtils.getProfileFile(configFile);
+            File file = path.toFile();
             file.renameTo(new File(file.getParentFile(), file.getName() + ".corrupted"));
         }
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(nonProfileSpecificPath), StandardCharsets.UTF_8))) {
-            nonProfileSpecificGson.fromJson(reader, this.getClass());
+        Path backup = ConfigWriter.getBackup(path);
+        if (!Files.exists(backup)) return;
+        logger.warn("Loading backup of {}", path);
+        try {
+            gson.fromJson(ConfigReader.read(backup), this.getClass());
         } catch (Exception e) {
             e.printStackTrace();
-            File file = ConfigUtils.getNonProfileSpecificFile(configFile);
-            file.renameTo(new File(file.getParentFile(), file.getName() + ".corrupted"));
         }
     }
 
@@ -238,19 +301,19 @@ public class Config {
         List<Mod> subMods = new ArrayList<>();
 
         String pagePath = page.equals(mod.defaultPage) ? "" : page.name + ".";
-        for (Field field : targetClass.getDeclaredFields()) {
-            Option option = ConfigUtils.findAnnotation(field, Option.class);
-            CustomOption customOption = ConfigUtils.findAnnotation(field, CustomOption.class);
+        ConfigClassMetadata metadata = ConfigClassMetadata.get(targetClass);
+        for (ConfigClassMetadata.OptionField optionField : metadata.fields) {
+            Field field = optionField.field;
             String optionName = pagePath + field.getName();
-            if (option != null) {
-                BasicOption configOption = ConfigUtils.addOptionToPage(page, option, field, instance, migrate ? mod.migrator : null);
+            if (optionField.kind == ConfigClassMetadata.Kind.OPTION) {
+                BasicOption configOption = ConfigUtils.addOptionToPage(page, optionField.<Option>getAnnotation(), field, instance, migrate ? mod.migrator : null);
                 optionNames.put(optionName, configOption);
-            } else if (customOption != null) {
-                BasicOption configOption = getCustomOption(field, customOption, page, mod, migrate);
+            } else if (optionField.kind == ConfigClassMetadata.Kind.CUSTOM_OPTION) {
+                BasicOption configOption = getCustomOption(field, optionField.getAnnotation(), page, mod, migrate);
                 if (configOption == null) continue;
                 optionNames.put(optionName, configOption);
-            } else if (field.isAnnotationPresent(Page.class)) {
-                Page optionPage = field.getAnnotation(Page.class);
+            } else if (optionField.kind == ConfigClassMetadata.Kind.PAGE) {
+                Page optionPage = optionField.getAnnotation();
                 OptionSubcategory subcategory = ConfigUtils.getSubCategory(page, optionPage.category(), optionPage.subcategory());
                 Object pageInstance = ConfigUtils.getField(field, instance);
                 if (pageInstance == null) continue;
@@ -264,22 +327,18 @@ public class Config {
                 }
                 if (optionPage.location() == PageLocation.TOP) subcategory.topButtons.add(button);
                 else subcategory.bottomButtons.add(button);
-            } else if (field.isAnnotationPresent(HUD.class)) {
+            } else if (optionField.kind == ConfigClassMetadata.Kind.HUD) {
                 HUDUtils.addHudOptions(page, field, instance, this);
-            } else if (field.isAnnotationPresent(SubConfig.class)) {
+            } else if (optionField.kind == ConfigClassMetadata.Kind.SUB_CONFIG) {
                 if (page != mod.defaultPage) continue;
                 Config config = (Config) ConfigUtils.getField(field, instance);
                 if (config == null) continue;
                 subMods.add(config.mod);
             }
         }
-        for (Method method : targetClass.getDeclaredMethods()) {
-            Button button = ConfigUtils.findAnnotation(method, Button.class);
-            String optionName = pagePath + method.getName();
-            if (button != null) {
-                BasicOption option = ConfigUtils.addOptionToPage(page, method, instance);
-                optionNames.put(optionName, option);
-            }
+        for (ConfigClassMetadata.ButtonMethod button : metadata.buttons) {
+            BasicOption option = ConfigUtils.addOptionToPage(page, button.method, instance);
+            optionNames.put(pagePath + button.method.getName(), option);
         }
         if (!subMods.isEmpty()) {
             if (!optionNames.isEmpty()) {
@@ -291,6 +350,33 @@ public class Config {
         logger.trace("Finished generating option list for {} (targetting={})", mod.name, targetClass.getName());
     }
 
+    /**
+     * Add the names of all options of a page and its sub pages to the search index of the mod, and mark the config as
+     * dirty when one of them is changed
+     *
+     * @param page page to register
+     */
+    private void registerOptions(OptionPage page) {
+        for (Map.Entry<String, OptionCategory> category : page.categories.entrySet()) {
+            mod.searchIndex.add(category.getKey());
+            for (OptionSubcategory subcategory : category.getValue().subcategories) {
+                mod.searchIndex.add(subcategory.getName());
+                for (ConfigPageButton button : subcategory.topButtons) registerPageButton(button);
+                for (BasicOption option : subcategory.options) {
+                    mod.searchIndex.add(option.name);
+                    option.addListener(this::markDirty);
+                }
+                for (ConfigPageButton button : subcategory.bottomButtons) registerPageButton(button);
+            }
+        }
+    }
+
+    private void registerPageButton(ConfigPageButton button) {
+        mod.searchIndex.add(button.name);
+        mod.searchIndex.add(button.description);
+        if (button.page instanceof ModConfigPage) registerOptions(((ModConfigPage) button.page).getPage());
+    }
+
     /**
      * All fields with the CustomOption annotation are sent to this function, overwrite this function to handle custom options,
      * For documentation please see: <a href="https://docs.polyfrost.cc/oneconfig/config/adding-options/custom-options">https://docs.polyfrost.cc/oneconfig/config/adding-options/custom-options</a>
@@ -356,7 +442,7 @@ public class Config {
         BasicOption optionObj = optionNames.get(dependentOption);
         optionNames.get(option).addDependency(optionObj.name, () -> {
             try {
-                return (boolean) optionObj.get();
+                return optionObj.getBoolean();
             } catch (IllegalAccessException ignored) {
                 return true;
             }
@@ -397,7 +483,7 @@ public class Config {
         if (!optionNames.containsKey(option) || !optionNames.containsKey(dependentOption)) return;
         optionNames.get(option).addHideCondition(() -> {
             try {
-                return (boolean) optionNames.get(dependentOption).get();
+                return optionNames.get(dependentOption).getBoolean();
             } catch (IllegalAccessException ignored) {
                 return true;
             }
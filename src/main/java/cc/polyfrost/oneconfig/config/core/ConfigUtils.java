@@ -35,6 +35,7 @@ import cc.polyfrost.oneconfig.config.elements.OptionSubcategory;
 import cc.polyfrost.oneconfig.config.migration.Migrator;
 import cc.polyfrost.oneconfig.gui.elements.config.*;
 import cc.polyfrost.oneconfig.internal.config.annotations.Option;
+import cc.polyfrost.oneconfig.internal.config.core.ConfigClassMetadata;
 import cc.polyfrost.oneconfig.internal.config.profiles.Profiles;
 import com.google.gson.FieldAttributes;
 import org.jetbrains.annotations.Nullable;
@@ -98,26 +99,14 @@ public class ConfigUtils {
 
     public static ArrayList<BasicOption> getClassOptions(Object object) {
         ArrayList<BasicOption> options = new ArrayList<>();
-        ArrayList<Field> fields = getClassFields(object.getClass());
-        for (Field field : fields) {
-            Option option = findAnnotation(field, Option.class);
-            if (option == null) continue;
-            options.add(getOption(option, field, object));
+        for (ConfigClassMetadata.OptionField field : ConfigClassMetadata.get(object.getClass()).allOptions) {
+            options.add(getOption(field.getAnnotation(), field.field, object));
         }
         return options;
     }
 
     public static ArrayList<Field> getClassFields(Class<?> object) {
-        ArrayList<Field> fields = new ArrayList<>(Arrays.asList(object.getDeclaredFields()));
-        Class<?> parentClass = object;
-        Class<?> clazz = object;
-        while (true) {
-            clazz = clazz.getSuperclass();
-            if (clazz != null && clazz != parentClass) fields.addAll(Arrays.asList(clazz.getDeclaredFields()));
-            else break;
-            parentClass = clazz;
-        }
-        return fields;
+        return new ArrayList<>(ConfigClassMetadata.get(object).allFields);
     }
 
     public static BasicOption addOptionToPage(OptionPage page, Option option, Field field, Object instance, @Nullable Migrator migrator) {
@@ -142,46 +131,27 @@ public class ConfigUtils {
         OptionCategory category = page.categories.get(categoryName);
         OptionSubcategory subcategory = category.subcategories.stream().filter(s -> s.getName().equals(subcategoryName)).findFirst().orElse(null);
         if (category.subcategories.size() == 0 || subcategory == null) {
-            category.subcategories.add((subcategory = new OptionSubcategory(subcategoryName, categoryName)));
+            category.subcategories.add((subcategory = new OptionSubcategory(subcategoryName, categoryName, page.mod)));
         }
         return subcategory;
     }
 
     public static <T extends Annotation> T findAnnotation(Field field, Class<T> annotationType) {
-        if (field.isAnnotationPresent(annotationType)) return field.getAnnotation(annotationType);
-        for (Annotation ann : field.getDeclaredAnnotations()) {
-            if (ann.annotationType().isAnnotationPresent(annotationType))
-                return ann.annotationType().getAnnotation(annotationType);
-        }
-        return null;
+        return ConfigClassMetadata.get(field.getDeclaringClass()).getAnnotation(field, annotationType);
     }
 
     public static <T extends Annotation> T findAnnotation(Method method, Class<T> annotationType) {
-        if (method.isAnnotationPresent(annotationType)) return method.getAnnotation(annotationType);
-        for (Annotation ann : method.getDeclaredAnnotations()) {
-            if (ann.annotationType().isAnnotationPresent(annotationType))
-                return ann.annotationType().getAnnotation(annotationType);
-        }
-        return null;
+        return ConfigClassMetadata.get(method.getDeclaringClass()).getAnnotation(method, annotationType);
     }
 
     public static <T extends Annotation> T findAnnotation(FieldAttributes field, Class<T> annotationType) {
-        T annotation = field.getAnnotation(annotationType);
-        if (annotation != null) return annotation;
-        for (Annotation ann : field.getAnnotations()) {
-            if (ann.annotationType().isAnnotationPresent(annotationType))
-                return ann.annotationType().getAnnotation(annotationType);
-        }
-        return null;
+        ConfigClassMetadata metadata = ConfigClassMetadata.get(field.getDeclaringClass());
+        Field declaredField = metadata.getField(field.getName());
+        return declaredField != null ? metadata.getAnnotation(declaredField, annotationType) : field.getAnnotation(annotationType);
     }
 
     public static <T extends Annotation> T findAnnotation(Class<?> clazz, Class<T> annotationType) {
-        if (clazz.isAnnotationPresent(annotationType)) return clazz.getAnnotation(annotationType);
-        for (Annotation ann : clazz.getDeclaredAnnotations()) {
-            if (ann.annotationType().isAnnotationPresent(annotationType))
-                return ann.annotationType().getAnnotation(annotationType);
-        }
-        return null;
+        return ConfigClassMetadata.get(clazz).getAnnotation(annotationType);
     }
 
     public static Object getField(Field field, Object parent) {
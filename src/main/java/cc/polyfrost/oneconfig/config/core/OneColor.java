@@ -26,6 +26,8 @@
 
 package cc.polyfrost.oneconfig.config.core;
 
+import cc.polyfrost.oneconfig.utils.color.ColorUtils;
+import cc.polyfrost.oneconfig.utils.gui.GuiUtils;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.*;
@@ -40,11 +42,16 @@ import java.io.Serializable;
  * short[2] = brightness (0-100)
  * short[3] = alpha (0-255)
  * </code>
+ * <p>
+ * The HSBA array and the chroma speed are the only fields Gson sees, so every Gson instance reads and writes colors in this
+ * format. The ARGB value is cached as a packed int, which is computed again the first time it is needed after Gson created
+ * the color without calling a constructor.
  */
 @SuppressWarnings("unused")
 public final class OneColor implements Serializable, Cloneable, Comparable<OneColor> {
-    transient private Integer argb = null;
-    private short[] hsba;
+    private transient int argb;
+    private transient boolean hasArgb;
+    private short[] hsba = new short[4];
     private int dataBit = -1;
 
     // hex constructor
@@ -52,7 +59,6 @@ public final class OneColor implements Serializable, Cloneable, Comparable<OneCo
     /** Create a OneColor from the given hex.
      */
     public OneColor(String hex) {
-        hsba = new short[]{0, 0, 0, 0};
         if(hex.length() > 7) {
             hsba[3] = (short) Integer.parseInt(hex.substring(6, 8), 16);
         }
@@ -65,16 +71,14 @@ public final class OneColor implements Serializable, Cloneable, Comparable<OneCo
      * Create a new OneColor, converting the RGBA color to HSBA.
      */
     public OneColor(int argb) {
-        this.argb = argb;
-        this.hsba = ARGBtoHSBA(this.argb);
+        setARGB(argb);
     }
 
     /**
      * Create a new OneColor from the given RGBA values.
      */
     public OneColor(int r, int g, int b, int a) {
-        this.argb = ((a & 0xFF) << 24) | ((r & 0xFF) << 16) | ((g & 0xFF) << 8) | ((b & 0xFF));
-        this.hsba = ARGBtoHSBA(this.argb);
+        this(((a & 0xFF) << 24) | ((r & 0xFF) << 16) | ((g & 0xFF) << 8) | ((b & 0xFF)));
     }
 
     /**
@@ -97,9 +101,7 @@ public final class OneColor implements Serializable, Cloneable, Comparable<OneCo
      * Create a new OneColor from the given HSBA values.
      */
     public OneColor(float hue, float saturation, float brightness, float alpha) {
-        this.hsba = new short[]{(short) hue, (short) saturation, (short) brightness, (short) alpha};
-        this.argb = HSBAtoARGB(this.hsba[0], this.hsba[1], this.hsba[2], this.hsba[3]);
-
+        setHSBA((short) hue, (short) saturation, (short) brightness, (short) alpha);
     }
 
     /**
@@ -123,13 +125,8 @@ public final class OneColor implements Serializable, Cloneable, Comparable<OneCo
 
     // internal constructor
     public OneColor(int hue, int saturation, int brightness, int alpha, int chromaSpeed) {
-        if (chromaSpeed == -1) {
-            this.hsba = new short[]{(short) hue, (short) saturation, (short) brightness, (short) alpha};
-            this.argb = HSBAtoARGB(this.hsba[0], this.hsba[1], this.hsba[2], this.hsba[3]);
-        } else {
-            this.dataBit = chromaSpeed;
-            this.hsba = new short[]{(short) hue, (short) saturation, (short) brightness, (short) alpha};
-        }
+        setHSBA(hue, saturation, brightness, alpha);
+        if (chromaSpeed != -1) this.dataBit = chromaSpeed;
     }
 
 
@@ -139,21 +136,38 @@ public final class OneColor implements Serializable, Cloneable, Comparable<OneCo
      * Get the RGBA color from the HSB color, and apply the alpha.
      */
     public static int HSBAtoARGB(float hue, float saturation, float brightness, int alpha) {
-        int temp = Color.HSBtoRGB(hue / 360f, saturation / 100f, brightness / 100f);
-        return ((temp & 0x00ffffff) | (alpha << 24));
+        float s = saturation / 100f;
+        float v = brightness / 100f;
+        int r, g, b;
+        if (s == 0) {
+            r = g = b = (int) (v * 255f + 0.5f);
+        } else {
+            float h = hue / 360f;
+            h = (h - (float) Math.floor(h)) * 6f;
+            float f = h - (float) Math.floor(h);
+            int p = (int) (v * (1f - s) * 255f + 0.5f);
+            int q = (int) (v * (1f - s * f) * 255f + 0.5f);
+            int t = (int) (v * (1f - s * (1f - f)) * 255f + 0.5f);
+            int max = (int) (v * 255f + 0.5f);
+            switch ((int) h) {
+                case 0: r = max; g = t; b = p; break;
+                case 1: r = q; g = max; b = p; break;
+                case 2: r = p; g = max; b = t; break;
+                case 3: r = p; g = q; b = max; break;
+                case 4: r = t; g = p; b = max; break;
+                default: r = max; g = p; b = q; break;
+            }
+        }
+        return (alpha << 24) | (r << 16) | (g << 8) | b;
     }
 
     /**
      * Get the HSBA color from the RGBA color.
      */
     public static short[] ARGBtoHSBA(int rgba) {
-        short[] hsb = new short[4];
-        float[] hsbArray = Color.RGBtoHSB((rgba >> 16 & 255), (rgba >> 8 & 255), (rgba & 255), null);
-        hsb[0] = (short) (hsbArray[0] * 360);
-        hsb[1] = (short) (hsbArray[1] * 100);
-        hsb[2] = (short) (hsbArray[2] * 100);
-        hsb[3] = (short) (rgba >> 24 & 255);
-        return hsb;
+        short[] hsba = new short[4];
+        argbToHsba(rgba, hsba);
+        return hsba;
     }
 
     /**
@@ -206,8 +220,7 @@ public final class OneColor implements Serializable, Cloneable, Comparable<OneCo
     }
 
     public void setAlpha(int alpha) {
-        this.hsba[3] = (short) alpha;
-        argb = HSBAtoARGB(this.hsba[0], this.hsba[1], this.hsba[2], this.hsba[3]);
+        setHSBA(3, alpha);
     }
 
     /**
@@ -234,19 +247,24 @@ public final class OneColor implements Serializable, Cloneable, Comparable<OneCo
      * Set the HSBA values of the color.
      */
     public void setHSBA(int hue, int saturation, int brightness, int alpha) {
-        this.hsba[0] = (short) hue;
-        this.hsba[1] = (short) saturation;
-        this.hsba[2] = (short) brightness;
-        this.hsba[3] = (short) alpha;
-        this.argb = HSBAtoARGB(this.hsba[0], this.hsba[1], this.hsba[2], this.hsba[3]);
+        hsba[0] = (short) hue;
+        hsba[1] = (short) saturation;
+        hsba[2] = (short) brightness;
+        hsba[3] = (short) alpha;
+        updateARGB();
     }
 
     /** Set a part of this color based on the index in the array,<br> for example where hue is index 0, saturation is index 1... */
     public void setHSBA(int index, final int val) {
-        this.hsba[index] = (short) val;
+        hsba[index] = (short) val;
+        updateARGB();
+    }
+
+    /** Get a part of this color based on the index in the array,<br> for example where hue is index 0, saturation is index 1... */
+    public int getHSBA(int index) {
+        return hsba[index];
     }
 
-    /** get the HSBA values for this color. */
     public short[] getHSBA() {
         return hsba;
     }
@@ -265,13 +283,12 @@ public final class OneColor implements Serializable, Cloneable, Comparable<OneCo
     public int getRGB() {
         if (dataBit == 0) dataBit = -1;
         if (dataBit == -1) {
-            // fix for when rgba is not set because of deserializing not calling constructor
-            if (argb == null) argb = HSBAtoARGB(this.hsba[0], this.hsba[1], this.hsba[2], this.hsba[3]);
+            if (!hasArgb) updateARGB();
             return argb;
         } else {
-            int temp = Color.HSBtoRGB(System.currentTimeMillis() % dataBit / (float) dataBit, hsba[1] / 100f, hsba[2] / 100f);
-            hsba[0] = (short) ((System.currentTimeMillis() % dataBit / (float) dataBit) * 360);
-            return ((temp & 0x00ffffff) | (hsba[3] << 24));
+            float hue = getChromaHue();
+            setChromaHue(hue);
+            return ColorUtils.getChromaColor(hue, getSaturation(), getBrightness(), getAlpha());
         }
     }
 
@@ -288,22 +305,35 @@ public final class OneColor implements Serializable, Cloneable, Comparable<OneCo
     public int getRGBMax(boolean maxBrightness) {
         if (dataBit == 0) dataBit = -1;
         if (dataBit == -1) {
-            return HSBAtoARGB(this.hsba[0], 100, maxBrightness ? 100 : 0, this.hsba[3]);
+            return hsbaToArgb(getHue(), 100, maxBrightness ? 100 : 0, getAlpha());
         } else {
-            int temp = Color.HSBtoRGB(System.currentTimeMillis() % dataBit / (float) dataBit, 1, maxBrightness ? 1 : 0);
-            hsba[0] = (short) ((System.currentTimeMillis() % dataBit / (float) dataBit) * 360);
-            return ((temp & 0x00ffffff) | (hsba[3] << 24));
+            float hue = getChromaHue();
+            setChromaHue(hue);
+            return ColorUtils.getChromaColor(hue, 100, maxBrightness ? 100 : 0, getAlpha());
         }
     }
 
+    /**
+     * Get the current hue (0-1) of the chroma, sampled from the frame clock so it stays the same for the whole frame.
+     */
+    private float getChromaHue() {
+        return GuiUtils.getFrameTime() % dataBit / (float) dataBit;
+    }
+
+    private void setChromaHue(float hue) {
+        hsba[0] = (short) (hue * 360);
+        hasArgb = false;
+    }
+
     public String getHex() {
         return Integer.toHexString(0xff000000 | getRGB()).toUpperCase().substring(2);
     }
 
     public void setColorFromHex(String hex) {
         hex = hex.replace("#", "");
+        int alpha = getAlpha();
         if(hex.length() == 8) {
-            hsba[3] = (short) (Integer.parseInt(hex.substring(6, 8), 16));
+            alpha = Integer.parseInt(hex.substring(6, 8), 16);
         }
         if (hex.length() > 6) {
             hex = hex.substring(0, 6);
@@ -325,8 +355,18 @@ public final class OneColor implements Serializable, Cloneable, Comparable<OneCo
         int r = Integer.valueOf(hex.substring(0, 2), 16);
         int g = Integer.valueOf(hex.substring(2, 4), 16);
         int b = Integer.valueOf(hex.substring(4, 6), 16);
-        this.argb = ((getAlpha() & 0xFF) << 24) | ((r & 0xFF) << 16) | ((g & 0xFF) << 8) | ((b & 0xFF));
-        hsba = ARGBtoHSBA(argb);
+        setARGB(((alpha & 0xFF) << 24) | ((r & 0xFF) << 16) | ((g & 0xFF) << 8) | ((b & 0xFF)));
+    }
+
+    private void setARGB(int argb) {
+        this.argb = argb;
+        this.hasArgb = true;
+        argbToHsba(argb, hsba);
+    }
+
+    private void updateARGB() {
+        this.argb = hsbaToArgb(hsba[0], hsba[1], hsba[2], hsba[3]);
+        this.hasArgb = true;
     }
 
     private String charsToString(char... chars) {
@@ -337,6 +377,54 @@ public final class OneColor implements Serializable, Cloneable, Comparable<OneCo
         return sb.toString();
     }
 
+    /**
+     * Convert integer HSBA values to an ARGB color, using integer math with the same rounding as {@link Color#HSBtoRGB(float, float, float)}.
+     */
+    private static int hsbaToArgb(int hue, int saturation, int brightness, int alpha) {
+        int r, g, b;
+        if (saturation == 0) {
+            r = g = b = (brightness * 255 + 50) / 100;
+        } else {
+            int h = Math.floorMod(hue, 360);
+            int remainder = h % 60;
+            int max = (brightness * 255 + 50) / 100;
+            int p = (brightness * 255 * (100 - saturation) + 5000) / 10000;
+            int q = (brightness * 255 * (6000 - saturation * remainder) + 300000) / 600000;
+            int t = (brightness * 255 * (6000 - saturation * (60 - remainder)) + 300000) / 600000;
+            switch (h / 60) {
+                case 0: r = max; g = t; b = p; break;
+                case 1: r = q; g = max; b = p; break;
+                case 2: r = p; g = max; b = t; break;
+                case 3: r = p; g = q; b = max; break;
+                case 4: r = t; g = p; b = max; break;
+                default: r = max; g = p; b = q; break;
+            }
+        }
+        return (alpha << 24) | ((r & 0xFF) << 16) | ((g & 0xFF) << 8) | (b & 0xFF);
+    }
+
+    /**
+     * Convert an ARGB color to HSBA, using integer math with the same truncation as {@link Color#RGBtoHSB(int, int, int, float[])}.
+     */
+    private static void argbToHsba(int argb, short[] hsba) {
+        int r = argb >> 16 & 255;
+        int g = argb >> 8 & 255;
+        int b = argb & 255;
+        int max = Math.max(r, Math.max(g, b));
+        int delta = max - Math.min(r, Math.min(g, b));
+        int brightness = max * 100 / 255;
+        int saturation = max == 0 ? 0 : delta * 100 / max;
+        int hue;
+        if (delta == 0) hue = 0;
+        else if (r == max) hue = (60 * (g - b) + (g < b ? 360 * delta : 0)) / delta;
+        else if (g == max) hue = (60 * (b - r) + 120 * delta) / delta;
+        else hue = (60 * (r - g) + 240 * delta) / delta;
+        hsba[0] = (short) hue;
+        hsba[1] = (short) saturation;
+        hsba[2] = (short) brightness;
+        hsba[3] = (short) (argb >> 24 & 255);
+    }
+
     public Color toJavaColor() {
         return new Color(getRGB(), true);
     }
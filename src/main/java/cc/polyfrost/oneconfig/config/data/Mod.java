@@ -29,6 +29,7 @@ package cc.polyfrost.oneconfig.config.data;
 import cc.polyfrost.oneconfig.config.Config;
 import cc.polyfrost.oneconfig.config.elements.OptionPage;
 import cc.polyfrost.oneconfig.config.migration.Migrator;
+import cc.polyfrost.oneconfig.utils.SearchIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -47,6 +48,10 @@ public class Mod implements Comparable<Mod> {
     @NotNull
     public final OptionPage defaultPage;
     public Config config;
+    /**
+     * Index of the names of the options of this mod, used to search them
+     */
+    public final SearchIndex searchIndex = new SearchIndex();
 
     /**
      * @param name       Friendly name of the mod
@@ -26,11 +26,17 @@
 
 package cc.polyfrost.oneconfig.config.elements;
 
+import cc.polyfrost.oneconfig.events.EventManager;
+import cc.polyfrost.oneconfig.events.event.RenderEvent;
+import cc.polyfrost.oneconfig.events.event.Stage;
 import cc.polyfrost.oneconfig.gui.animations.Animation;
 import cc.polyfrost.oneconfig.gui.animations.ColorAnimation;
 import cc.polyfrost.oneconfig.gui.animations.DummyAnimation;
 import cc.polyfrost.oneconfig.internal.assets.Colors;
+import cc.polyfrost.oneconfig.internal.config.Preferences;
+import cc.polyfrost.oneconfig.internal.config.core.FieldAccessors;
 import cc.polyfrost.oneconfig.internal.utils.DescriptionRenderer;
+import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
 import cc.polyfrost.oneconfig.libs.universal.ChatColor;
 import cc.polyfrost.oneconfig.libs.universal.UResolution;
 import cc.polyfrost.oneconfig.renderer.NanoVGHelper;
@@ -42,13 +48,17 @@ import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.WeakHashMap;
 import java.util.function.Supplier;
 
 public abstract class BasicOption {
+    private static final Set<BasicOption> drawnOptions = Collections.newSetFromMap(new WeakHashMap<>());
     public final int size;
     protected final Field field;
     protected Object parent;
@@ -56,13 +66,22 @@ public abstract class BasicOption {
     public final String description;
     public final String category;
     public final String subcategory;
-    private final ColorAnimation nameColorAnimation = new ColorAnimation(new ColorPalette(Colors.WHITE_90, Colors.WHITE, Colors.WHITE_90));
+    private ColorAnimation nameColorAnimation;
     protected int nameColor = Colors.WHITE_90;
     private final Map<String, Supplier<Boolean>> dependencies = new HashMap<>();
     private final List<Runnable> listeners = new ArrayList<>();
     private final List<Supplier<Boolean>> hideConditions = new ArrayList<>();
     private Animation descriptionAnimation = new DummyAnimation(0f);
     private float hoverTime = 0f;
+    private long lastDrawn;
+    private final boolean overridesGet;
+    private FieldAccessors.BooleanAccessor booleanAccessor;
+    private FieldAccessors.FloatAccessor floatAccessor;
+    private FieldAccessors.IntAccessor intAccessor;
+
+    static {
+        EventManager.INSTANCE.register(new GuiStateReleaser());
+    }
 
     /**
      * Initialize option
@@ -83,9 +102,18 @@ public abstract class BasicOption {
         this.category = category;
         this.subcategory = subcategory;
         this.size = size;
+        this.overridesGet = overridesGet(getClass());
         if (field != null) field.setAccessible(true);
     }
 
+    private static boolean overridesGet(Class<?> clazz) {
+        try {
+            return clazz.getMethod("get").getDeclaringClass() != BasicOption.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
     /**
      * @param object Java object to set the variable to
      */
@@ -107,6 +135,39 @@ public abstract class BasicOption {
         return field.get(parent);
     }
 
+    /**
+     * Same as {@link #get()}, but without boxing the value
+     *
+     * @return value of a boolean variable
+     */
+    public boolean getBoolean() throws IllegalAccessException {
+        if (field == null || overridesGet) return (boolean) get();
+        if (booleanAccessor == null) booleanAccessor = FieldAccessors.forBoolean(field);
+        return booleanAccessor.get(parent);
+    }
+
+    /**
+     * Same as {@link #get()}, but without boxing the value
+     *
+     * @return value of a float or int variable
+     */
+    public float getFloat() throws IllegalAccessException {
+        if (field == null || overridesGet) return ((Number) get()).floatValue();
+        if (floatAccessor == null) floatAccessor = FieldAccessors.forFloat(field);
+        return floatAccessor.get(parent);
+    }
+
+    /**
+     * Same as {@link #get()}, but without boxing the value
+     *
+     * @return value of an int variable
+     */
+    public int getInt() throws IllegalAccessException {
+        if (field == null || overridesGet) return (int) get();
+        if (intAccessor == null) intAccessor = FieldAccessors.forInt(field);
+        return intAccessor.get(parent);
+    }
+
     /**
      * @return height of option to align other options accordingly
      */
@@ -144,6 +205,7 @@ public abstract class BasicOption {
 
     public void drawDescription(long vg, int x, int y, InputHandler inputHandler) {
         if (description.trim().isEmpty() && dependencies.isEmpty()) return;
+        if (nameColorAnimation == null) nameColorAnimation = new ColorAnimation(new ColorPalette(Colors.WHITE_90, Colors.WHITE, Colors.WHITE_90));
         boolean hovered = inputHandler.isAreaHovered(getNameX(x), y, NanoVGHelper.INSTANCE.getTextWidth(vg, name, 14f, Fonts.MEDIUM), 32f);
         nameColor = nameColorAnimation.getColor(hovered, false);
         if (hovered) hoverTime += GuiUtils.getDeltaTime();
@@ -286,4 +348,51 @@ public abstract class BasicOption {
 
     public void finishUpAndClose() {
     }
+
+    /**
+     * Remember that the option was drawn, so its GUI state is released once it hasn't been drawn for a while
+     */
+    void markDrawn() {
+        if (lastDrawn == 0) drawnOptions.add(this);
+        lastDrawn = System.currentTimeMillis();
+    }
+
+    /**
+     * Options which are animating are drawn until their animations finish, even when they are out of view.
+     *
+     * @return If an animation of the option is still running
+     */
+    public boolean isAnimating() {
+        return nameColorAnimation != null && !nameColorAnimation.isFinished() || !descriptionAnimation.isFinished();
+    }
+
+    /**
+     * Release the state which is only needed while the option is drawn, like its animations. This is called once the
+     * option hasn't been drawn for a while, and the state should be created again the next time it is drawn.
+     */
+    protected void releaseGuiState() {
+        nameColorAnimation = null;
+        nameColor = Colors.WHITE_90;
+        descriptionAnimation = new DummyAnimation(0f);
+        hoverTime = 0f;
+    }
+
+    private static class GuiStateReleaser {
+        private long lastCheck;
+
+        @Subscribe
+        private void onRender(RenderEvent event) {
+            if (event.stage != Stage.START || drawnOptions.isEmpty()) return;
+            long now = System.currentTimeMillis();
+            if (now - lastCheck < 1000) return;
+            lastCheck = now;
+            long delay = Preferences.optionUnloadDelay * 1000L;
+            drawnOptions.removeIf(option -> {
+                if (now - option.lastDrawn < delay) return false;
+                option.lastDrawn = 0;
+                option.releaseGuiState();
+                return true;
+            });
+        }
+    }
 }
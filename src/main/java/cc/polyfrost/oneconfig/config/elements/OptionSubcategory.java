@@ -26,112 +26,310 @@
 
 package cc.polyfrost.oneconfig.config.elements;
 
+import cc.polyfrost.oneconfig.config.data.Mod;
 import cc.polyfrost.oneconfig.gui.OneConfigGui;
+import cc.polyfrost.oneconfig.gui.elements.IFocusable;
 import cc.polyfrost.oneconfig.gui.elements.config.ConfigPageButton;
 import cc.polyfrost.oneconfig.internal.assets.Colors;
+import cc.polyfrost.oneconfig.internal.config.Preferences;
 import cc.polyfrost.oneconfig.renderer.NanoVGHelper;
 import cc.polyfrost.oneconfig.renderer.font.Fonts;
 import cc.polyfrost.oneconfig.utils.InputHandler;
 import cc.polyfrost.oneconfig.utils.SearchUtils;
 
 import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Arrays;
 
 public class OptionSubcategory {
     private final String name;
     public ArrayList<BasicOption> options = new ArrayList<>();
     public ArrayList<ConfigPageButton> topButtons = new ArrayList<>();
     public ArrayList<ConfigPageButton> bottomButtons = new ArrayList<>();
-    private List<BasicOption> filteredOptions = new ArrayList<>();
-    private int drawLastY;
     private final String category;
+    private final Mod mod;
+    private String searchFilter = null;
+    private int searchedCount = -1;
+    private int searchedDistance = -1;
+    private final ArrayList<BasicOption> searchResults = new ArrayList<>();
+    private final ArrayList<BasicOption> animatingOptions = new ArrayList<>();
+    private int topResults, optionResults;
+    private boolean[] resultHidden = new boolean[0];
+    private int[] resultHeights = new int[0];
+    private BasicOption[] elements = new BasicOption[0];
+    private int[] elementX = new int[0];
+    private int[] elementY = new int[0];
+    private int[] elementRowBottom = new int[0];
+    private int elementCount, optionsStart, optionsEnd;
+    private int backgroundY, backgroundHeight, layoutHeight;
+    private int drawLastY, visibleFrom, visibleTo, focusedElement = -1;
+    private BasicOption focusedOption;
 
     public OptionSubcategory(String name, String category) {
+        this(name, category, null);
+    }
+
+    /**
+     * @param mod The mod the subcategory belongs to, its search index is used to search the options
+     */
+    public OptionSubcategory(String name, String category, Mod mod) {
         this.name = name;
         this.category = category;
+        this.mod = mod;
     }
 
     public int draw(long vg, int x, int y, InputHandler inputHandler) {
+        return draw(vg, x, y, Integer.MIN_VALUE, Integer.MAX_VALUE, inputHandler);
+    }
+
+    /**
+     * Draw the subcategory, skipping the options which are outside the given vertical range.
+     * Options which have focus are always drawn, so they keep handling input, and so are options whose animations are
+     * still running, until they finish.
+     *
+     * @param viewTop    The top of the visible area
+     * @param viewBottom The bottom of the visible area
+     * @return The height of the subcategory
+     */
+    public int draw(long vg, int x, int y, int viewTop, int viewBottom, InputHandler inputHandler) {
         NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
+        updateLayout();
+        drawLastY = y;
+        if (layoutHeight == 0) {
+            visibleFrom = visibleTo = 0;
+            focusedElement = -1;
+            animatingOptions.clear();
+            return 0;
+        }
+        visibleFrom = getFirstVisible(viewTop - y);
+        visibleTo = visibleFrom;
+        while (visibleTo < elementCount && y + elementY[visibleTo] <= viewBottom) visibleTo++;
+        if (!name.equals("") && y + 36 >= viewTop && y <= viewBottom) {
+            nanoVGHelper.drawText(vg, name, x, y + 12, Colors.WHITE_90, 24, Fonts.MEDIUM);
+        }
+        if (optionsEnd > optionsStart && y + backgroundY + backgroundHeight >= viewTop && y + backgroundY <= viewBottom) {
+            nanoVGHelper.drawRoundedRect(vg, x - 16, y + backgroundY, 1024, backgroundHeight, Colors.GRAY_900, 20);
+        }
+        focusedElement = getFocusedElement();
+        if (focusedElement != -1 && (focusedElement < visibleFrom || focusedElement >= visibleTo)) {
+            elements[focusedElement].draw(vg, x + elementX[focusedElement], y + elementY[focusedElement], inputHandler);
+            elements[focusedElement].markDrawn();
+        }
+        drawAnimating(vg, x, y, inputHandler);
+        for (int i = visibleFrom; i < visibleTo; i++) {
+            BasicOption element = elements[i];
+            element.draw(vg, x + elementX[i], y + elementY[i], inputHandler);
+            element.markDrawn();
+            if (hasFocus(element)) focusedOption = element;
+            if (element.isAnimating() && !animatingOptions.contains(element)) animatingOptions.add(element);
+        }
+        return layoutHeight;
+    }
+
+    /**
+     * Draw the options outside the visible range which were still animating when they were last drawn, and forget the
+     * ones which finished or aren't laid out anymore.
+     */
+    private void drawAnimating(long vg, int x, int y, InputHandler inputHandler) {
+        for (int i = animatingOptions.size() - 1; i >= 0; i--) {
+            BasicOption option = animatingOptions.get(i);
+            int element = getElement(option);
+            if (element == -1 || !option.isAnimating()) {
+                animatingOptions.remove(i);
+                continue;
+            }
+            if (element == focusedElement || element >= visibleFrom && element < visibleTo) continue;
+            option.draw(vg, x + elementX[element], y + elementY[element], inputHandler);
+            option.markDrawn();
+        }
+    }
+
+    private int getElement(BasicOption option) {
+        for (int i = 0; i < elementCount; i++) {
+            if (elements[i] == option) return i;
+        }
+        return -1;
+    }
+
+    public void drawLast(long vg, int x, InputHandler inputHandler) {
+        if (focusedElement >= optionsStart && focusedElement < optionsEnd && (focusedElement < visibleFrom || focusedElement >= visibleTo)) {
+            elements[focusedElement].drawLast(vg, x + elementX[focusedElement], drawLastY + elementY[focusedElement], inputHandler);
+        }
+        for (int i = Math.max(optionsStart, visibleFrom); i < Math.min(optionsEnd, visibleTo); i++) {
+            elements[i].drawLast(vg, x + elementX[i], drawLastY + elementY[i], inputHandler);
+        }
+    }
+
+    /**
+     * Options can only gain focus while they are visible, so only the last option which had focus needs to be
+     * kept alive when it is scrolled out of view.
+     *
+     * @return The index of the element which has focus, or -1
+     */
+    private int getFocusedElement() {
+        if (focusedOption == null) return -1;
+        if (hasFocus(focusedOption)) {
+            int element = getElement(focusedOption);
+            if (element != -1) return element;
+        }
+        focusedOption = null;
+        return -1;
+    }
+
+    /**
+     * Lays out the options which match the search and aren't hidden. The layout is only redone when the search, the
+     * search distance, the hidden state or the height of an option changed.
+     */
+    private void updateLayout() {
         String filter = OneConfigGui.INSTANCE == null ? "" : OneConfigGui.INSTANCE.getSearchValue().toLowerCase().trim();
+        boolean changed = false;
+        if (!filter.equals(searchFilter) || searchedDistance != Preferences.searchDistance
+                || searchedCount != topButtons.size() + options.size() + bottomButtons.size()) {
+            search(filter);
+            changed = true;
+        }
+        for (int i = 0; i < searchResults.size(); i++) {
+            BasicOption option = searchResults.get(i);
+            boolean hidden = option.isHidden();
+            int height = hidden ? 0 : option.getHeight();
+            if (hidden != resultHidden[i] || height != resultHeights[i]) {
+                resultHidden[i] = hidden;
+                resultHeights[i] = height;
+                changed = true;
+            }
+        }
+        if (changed) layout();
+    }
+
+    private void search(String filter) {
+        searchFilter = filter;
+        searchedDistance = Preferences.searchDistance;
+        searchedCount = topButtons.size() + options.size() + bottomButtons.size();
+        searchResults.clear();
         //todo bugs: "Test Page" in test mod doesn't get filtered nicely
-        boolean shouldNotFilter = filter.equals("") || SearchUtils.isSimilar(category, filter) || SearchUtils.isSimilar(name, filter);
-        filteredOptions = options.stream().filter(option -> !option.isHidden() && (shouldNotFilter || SearchUtils.isSimilar(option.name, filter))).collect(Collectors.toList());
-        List<ConfigPageButton> filteredTop = topButtons.stream().filter(page -> !page.isHidden() && (shouldNotFilter || SearchUtils.isSimilar(page.name, filter) || SearchUtils.isSimilar(page.description, filter))).collect(Collectors.toList());
-        List<ConfigPageButton> filteredBottom = bottomButtons.stream().filter(page -> !page.isHidden() && (shouldNotFilter || SearchUtils.isSimilar(page.name, filter) || SearchUtils.isSimilar(page.description, filter))).collect(Collectors.toList());
-        if (filteredOptions.size() == 0 && filteredTop.size() == 0 && filteredBottom.size() == 0) return 0;
-        int optionY = y;
-        if (!name.equals("")) {
-            nanoVGHelper.drawText(vg, name, x, y + 12, Colors.WHITE_90, 24, Fonts.MEDIUM);
-            optionY += 36;
-        }
-
-        for (ConfigPageButton page : filteredTop) {
-            page.draw(vg, x, optionY, inputHandler);
-            optionY += page.getHeight() + 16;
-        }
-
-        if (filteredOptions.size() > 0) {
-            int backgroundSize = 16;
-            for (int i = 0; i < filteredOptions.size(); i++) {
-                BasicOption option = filteredOptions.get(i);
-                if (i + 1 < filteredOptions.size()) {
-                    BasicOption nextOption = filteredOptions.get(i + 1);
-                    if (option.size == 1 && nextOption.size == 1) {
-                        backgroundSize += Math.max(option.getHeight(), nextOption.getHeight()) + 16;
-                        i++;
-                        continue;
-                    }
-                }
-                backgroundSize += option.getHeight() + 16;
+        boolean shouldNotFilter = filter.equals("") || isSimilar(category, filter) || isSimilar(name, filter);
+        for (ConfigPageButton page : topButtons) {
+            if (shouldNotFilter || isSimilar(page.name, filter) || isSimilar(page.description, filter)) searchResults.add(page);
+        }
+        topResults = searchResults.size();
+        for (BasicOption option : options) {
+            if (shouldNotFilter || isSimilar(option.name, filter)) searchResults.add(option);
+        }
+        optionResults = searchResults.size() - topResults;
+        for (ConfigPageButton page : bottomButtons) {
+            if (shouldNotFilter || isSimilar(page.name, filter) || isSimilar(page.description, filter)) searchResults.add(page);
+        }
+        int size = searchResults.size();
+        resultHidden = new boolean[size];
+        resultHeights = new int[size];
+        elements = new BasicOption[size];
+        elementX = new int[size];
+        elementY = new int[size];
+        elementRowBottom = new int[size];
+        Arrays.fill(resultHeights, -1);
+    }
+
+    private boolean isSimilar(String text, String filter) {
+        return mod == null ? SearchUtils.isSimilar(text, filter) : mod.searchIndex.isSimilar(text, filter);
+    }
+
+    private void layout() {
+        elementCount = 0;
+        layoutHeight = 0;
+        boolean empty = true;
+        for (boolean hidden : resultHidden) {
+            if (!hidden) {
+                empty = false;
+                break;
             }
-            nanoVGHelper.drawRoundedRect(vg, x - 16, optionY, 1024, backgroundSize, Colors.GRAY_900, 20);
-            optionY += 16;
+        }
+        if (empty) {
+            optionsStart = optionsEnd = 0;
+            return;
+        }
+        int optionY = name.equals("") ? 0 : 36;
+
+        for (int i = 0; i < topResults; i++) {
+            if (resultHidden[i]) continue;
+            addElement(i, 0, optionY, optionY + resultHeights[i]);
+            optionY += resultHeights[i] + 16;
         }
 
-        drawLastY = optionY;
-        if (filteredOptions.size() > 0) {
-            for (int i = 0; i < filteredOptions.size(); i++) {
-                BasicOption option = filteredOptions.get(i);
-                option.draw(vg, x, optionY, inputHandler);
-                if (i + 1 < filteredOptions.size()) {
-                    BasicOption nextOption = filteredOptions.get(i + 1);
-                    if (option.size == 1 && nextOption.size == 1) {
-                        nextOption.draw(vg, x + 512, optionY, inputHandler);
-                        optionY += Math.max(option.getHeight(), nextOption.getHeight()) + 16;
-                        i++;
-                        continue;
-                    }
-                }
-                optionY += option.getHeight() + 16;
+        optionsStart = elementCount;
+        int resultsEnd = topResults + optionResults;
+        for (int i = topResults; i < resultsEnd; i++) {
+            if (resultHidden[i]) continue;
+            if (elementCount == optionsStart) {
+                backgroundY = optionY;
+                optionY += 16;
+            }
+            BasicOption option = searchResults.get(i);
+            int next = i + 1;
+            while (next < resultsEnd && resultHidden[next]) next++;
+            if (next < resultsEnd && option.size == 1 && searchResults.get(next).size == 1) {
+                int rowHeight = Math.max(resultHeights[i], resultHeights[next]);
+                addElement(i, 0, optionY, optionY + rowHeight);
+                addElement(next, 512, optionY, optionY + rowHeight);
+                optionY += rowHeight + 16;
+                i = next;
+                continue;
             }
+            addElement(i, 0, optionY, optionY + resultHeights[i]);
+            optionY += resultHeights[i] + 16;
+        }
+        optionsEnd = elementCount;
+        if (optionsEnd > optionsStart) {
+            backgroundHeight = optionY - backgroundY;
             optionY += 16;
         }
 
-        for (ConfigPageButton page : filteredBottom) {
-            page.draw(vg, x, optionY, inputHandler);
-            optionY += page.getHeight() + 16;
+        for (int i = resultsEnd; i < searchResults.size(); i++) {
+            if (resultHidden[i]) continue;
+            addElement(i, 0, optionY, optionY + resultHeights[i]);
+            optionY += resultHeights[i] + 16;
         }
+        layoutHeight = optionY;
+    }
 
-        return optionY - y;
+    private void addElement(int result, int x, int y, int rowBottom) {
+        elements[elementCount] = searchResults.get(result);
+        elementX[elementCount] = x;
+        elementY[elementCount] = y;
+        elementRowBottom[elementCount] = rowBottom;
+        elementCount++;
     }
 
-    public void drawLast(long vg, int x, InputHandler inputHandler) {
-        for (int i = 0; i < filteredOptions.size(); i++) {
-            BasicOption option = filteredOptions.get(i);
-            option.drawLast(vg, x, drawLastY, inputHandler);
-            if (i + 1 < filteredOptions.size()) {
-                BasicOption nextOption = filteredOptions.get(i + 1);
-                if (option.size == 1 && nextOption.size == 1) {
-                    nextOption.drawLast(vg, x + 512, drawLastY, inputHandler);
-                    drawLastY += Math.max(option.getHeight(), nextOption.getHeight()) + 16;
-                    i++;
-                    continue;
-                }
-            }
-            drawLastY += option.getHeight() + 16;
+    /**
+     * Row bottoms only grow from one element to the next, so the first visible element can be binary searched.
+     *
+     * @param viewTop The top of the visible area, relative to the subcategory
+     * @return The index of the first element whose row reaches into the visible area
+     */
+    private int getFirstVisible(long viewTop) {
+        int low = 0;
+        int high = elementCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (elementRowBottom[mid] < viewTop) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static boolean hasFocus(BasicOption option) {
+        return option instanceof IFocusable && ((IFocusable) option).hasFocus();
+    }
+
+    /**
+     * Get the position of an option, as laid out when the subcategory was last drawn.
+     *
+     * @param option The option
+     * @return The y position of the option relative to the subcategory, or -1 if it isn't shown
+     */
+    public int getOptionY(BasicOption option) {
+        for (int i = 0; i < elementCount; i++) {
+            if (elements[i] == option) return elementY[i];
         }
+        return -1;
     }
 
     public String getName() {
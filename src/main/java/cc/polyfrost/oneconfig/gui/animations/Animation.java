@@ -26,6 +26,7 @@
 
 package cc.polyfrost.oneconfig.gui.animations;
 
+import cc.polyfrost.oneconfig.internal.config.Preferences;
 import cc.polyfrost.oneconfig.utils.gui.GuiUtils;
 
 public abstract class Animation {
@@ -34,6 +35,8 @@ public abstract class Animation {
     protected final float start;
     protected final float change;
     protected float timePassed = 0;
+    private long startTime;
+    private boolean started;
 
     /**
      * @param duration The duration of the animation
@@ -54,20 +57,71 @@ public abstract class Animation {
     }
 
     /**
+     * Advance the animation manually. Prefer {@link #get()}, which doesn't depend on how often it is called.
+     *
      * @param deltaTime The time since the last frame
      * @return The new value
      */
     public float get(float deltaTime) {
         timePassed += deltaTime;
-        if (timePassed >= duration) return start + change;
-        return animate(timePassed / duration) * change + start;
+        if (!Preferences.enableAnimations) timePassed = duration;
+        return getValue(timePassed);
     }
 
     /**
-     * @return The new value
+     * Sample the animation at the time of the current frame. Calling this several times in the same frame
+     * returns the same value.
+     *
+     * @return The value at the current frame
+     * @see GuiUtils#getFrameNanos()
      */
     public float get() {
-        return get(GuiUtils.getDeltaTime());
+        return getAt(GuiUtils.getFrameNanos());
+    }
+
+    /**
+     * Sample the animation at the given time. The animation starts the first time it is sampled.
+     *
+     * @param time The time to sample the animation at, in nanoseconds
+     * @return The value at the given time
+     */
+    public float getAt(long time) {
+        timePassed = getTimePassed(time);
+        return getValue(timePassed);
+    }
+
+    /**
+     * @param time The current time, in nanoseconds
+     * @return The time passed since the animation was started, in milliseconds
+     */
+    protected float getTimePassed(long time) {
+        if (!started) start(time);
+        if (!Preferences.enableAnimations) return Math.max(duration, 0);
+        return (time - startTime) / 1_000_000f;
+    }
+
+    /**
+     * @param time The time the animation starts at, in nanoseconds
+     */
+    void start(long time) {
+        startTime = time;
+        started = true;
+    }
+
+    /**
+     * @return If the animation has been sampled with {@link #getAt(long)} or started by a {@link ChainedAnimation}
+     */
+    boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * @param timePassed The time passed since the start of the animation
+     * @return The value of the animation at that time
+     */
+    protected float getValue(float timePassed) {
+        if (timePassed >= duration) return start + change;
+        return animate(timePassed / duration) * change + start;
     }
 
     /**
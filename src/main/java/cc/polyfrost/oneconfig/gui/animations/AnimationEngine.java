@@ -0,0 +1,273 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.gui.animations;
+
+import cc.polyfrost.oneconfig.internal.config.Preferences;
+import cc.polyfrost.oneconfig.utils.gui.FrameClock;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * Advances many simple animations at once, without allocating an object per animation.
+ * <p>
+ * Animations are stored in primitive arrays and referred to by int handles. They are all advanced once per frame
+ * by {@link FrameClock}, right after it starts the frame, and leave the active set as soon as they settle, so idle
+ * animations cost nothing.
+ * This is only meant to be used from the render thread.
+ */
+public final class AnimationEngine {
+    public static final AnimationEngine INSTANCE = new AnimationEngine();
+
+    public static final int LINEAR = 0;
+    public static final int EASE_IN_OUT_QUAD = 1;
+    public static final int EASE_OUT_QUAD = 2;
+    public static final int EASE_IN_OUT_CUBIC = 3;
+    public static final int EASE_OUT_EXPO = 4;
+
+    private float[] start = new float[64];
+    private float[] end = new float[64];
+    private float[] duration = new float[64];
+    private float[] elapsed = new float[64];
+    private byte[] easing = new byte[64];
+    private int[] activeIndex = new int[64];
+    private OwnerReference[] owners = new OwnerReference[64];
+    private int[] active = new int[64];
+    private int activeCount = 0;
+    private int[] free = new int[64];
+    private int freeCount = 0;
+    private int size = 0;
+    private final ReferenceQueue<Object> releasedOwners = new ReferenceQueue<>();
+
+    static {
+        // the clock advances the engine, so it has to be listening for frames once there are animations
+        FrameClock.getFrameNanos();
+    }
+
+    private AnimationEngine() {
+    }
+
+    /**
+     * Create a new animation which is settled at the given value.
+     *
+     * @param owner The object using the animation, the handle is released once it is garbage collected
+     * @param value The initial value
+     * @return The handle of the animation
+     */
+    public int create(Object owner, float value) {
+        int handle;
+        if (freeCount > 0) {
+            handle = free[--freeCount];
+        } else {
+            if (size == start.length) grow();
+            handle = size++;
+        }
+        start[handle] = value;
+        end[handle] = value;
+        duration[handle] = 0;
+        elapsed[handle] = 0;
+        easing[handle] = LINEAR;
+        activeIndex[handle] = -1;
+        owners[handle] = owner == null ? null : new OwnerReference(owner, handle, releasedOwners);
+        return handle;
+    }
+
+    /**
+     * Animate from the current value to a new one.
+     *
+     * @param handle   The handle of the animation
+     * @param target   The value to animate to
+     * @param duration The duration of the animation, in milliseconds
+     * @param easing   The easing function, for example {@link #EASE_IN_OUT_QUAD}
+     */
+    public void animateTo(int handle, float target, float duration, int easing) {
+        float current = get(handle);
+        if (duration <= 0 || current == target || !Preferences.enableAnimations) {
+            set(handle, target);
+            return;
+        }
+        this.start[handle] = current;
+        this.end[handle] = target;
+        this.duration[handle] = duration;
+        this.elapsed[handle] = 0;
+        this.easing[handle] = (byte) easing;
+        if (activeIndex[handle] == -1) {
+            activeIndex[handle] = activeCount;
+            active[activeCount++] = handle;
+        }
+    }
+
+    /**
+     * Settle the animation at the given value.
+     *
+     * @param handle The handle of the animation
+     * @param value  The value
+     */
+    public void set(int handle, float value) {
+        start[handle] = value;
+        end[handle] = value;
+        deactivate(handle);
+    }
+
+    /**
+     * @param handle The handle of the animation
+     * @return The current value of the animation
+     */
+    public float get(int handle) {
+        if (activeIndex[handle] == -1) return end[handle];
+        float from = start[handle];
+        return from + (end[handle] - from) * ease(easing[handle], elapsed[handle] / duration[handle]);
+    }
+
+    /**
+     * @param handle The handle of the animation
+     * @return The value the animation is going towards
+     */
+    public float getTarget(int handle) {
+        return end[handle];
+    }
+
+    /**
+     * @param handle The handle of the animation
+     * @return If the animation is finished or not
+     */
+    public boolean isFinished(int handle) {
+        return activeIndex[handle] == -1;
+    }
+
+    /**
+     * Release the handle of an animation so it can be reused. The handle must not be used afterwards.
+     *
+     * @param handle The handle of the animation
+     */
+    public void release(int handle) {
+        deactivate(handle);
+        OwnerReference owner = owners[handle];
+        if (owner != null) {
+            owner.released = true;
+            owners[handle] = null;
+        }
+        if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = handle;
+    }
+
+    /**
+     * Skip all running animations to their end.
+     */
+    public void finishAll() {
+        while (activeCount > 0) {
+            int handle = active[activeCount - 1];
+            start[handle] = end[handle];
+            deactivate(handle);
+        }
+    }
+
+    /**
+     * @return The amount of animations which are currently running
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * Advance all running animations, or finish them if animations are disabled. This is called by
+     * {@link FrameClock} at the start of every frame.
+     *
+     * @param deltaTime The time since the last frame, in milliseconds
+     */
+    public void advance(float deltaTime) {
+        if (!Preferences.enableAnimations) finishAll();
+        for (int i = activeCount - 1; i >= 0; i--) {
+            int handle = active[i];
+            float time = elapsed[handle] + deltaTime;
+            if (time >= duration[handle]) {
+                start[handle] = end[handle];
+                deactivate(handle);
+            } else {
+                elapsed[handle] = time;
+            }
+        }
+        Reference<?> reference;
+        while ((reference = releasedOwners.poll()) != null) {
+            OwnerReference owner = (OwnerReference) reference;
+            if (!owner.released) release(owner.handle);
+        }
+    }
+
+    private void deactivate(int handle) {
+        int index = activeIndex[handle];
+        if (index == -1) return;
+        int last = active[--activeCount];
+        active[index] = last;
+        activeIndex[last] = index;
+        activeIndex[handle] = -1;
+    }
+
+    private void grow() {
+        int capacity = start.length * 2;
+        start = Arrays.copyOf(start, capacity);
+        end = Arrays.copyOf(end, capacity);
+        duration = Arrays.copyOf(duration, capacity);
+        elapsed = Arrays.copyOf(elapsed, capacity);
+        easing = Arrays.copyOf(easing, capacity);
+        activeIndex = Arrays.copyOf(activeIndex, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+        active = Arrays.copyOf(active, capacity);
+    }
+
+    /**
+     * @param easing The easing function
+     * @param x      The progress of the animation (0-1)
+     * @return The eased progress
+     */
+    public static float ease(int easing, float x) {
+        switch (easing) {
+            case EASE_IN_OUT_QUAD:
+                return x < 0.5f ? 2 * x * x : 1 - (-2 * x + 2) * (-2 * x + 2) / 2;
+            case EASE_OUT_QUAD:
+                return 1 - (1 - x) * (1 - x);
+            case EASE_IN_OUT_CUBIC:
+                return x < 0.5f ? 4 * x * x * x : 1 - (-2 * x + 2) * (-2 * x + 2) * (-2 * x + 2) / 2;
+            case EASE_OUT_EXPO:
+                return x == 1 ? 1 : 1 - (float) Math.pow(2, -10 * x);
+            default:
+                return x;
+        }
+    }
+
+    private static class OwnerReference extends WeakReference<Object> {
+        private final int handle;
+        private boolean released;
+
+        private OwnerReference(Object owner, int handle, ReferenceQueue<Object> queue) {
+            super(owner, queue);
+            this.handle = handle;
+        }
+    }
+}
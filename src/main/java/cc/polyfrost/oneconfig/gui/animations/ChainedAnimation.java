@@ -30,6 +30,7 @@ public class ChainedAnimation extends Animation {
     private final Animation[] animations;
     private int currentAnimation = 0;
     private float value;
+    private long stepStart;
 
     public ChainedAnimation(Animation... animations) {
         super(1, 0, 0, false);
@@ -44,6 +45,28 @@ public class ChainedAnimation extends Animation {
         return value;
     }
 
+    /**
+     * Each step starts when the previous one finishes: a timed step after its duration, and a step which finishes on a
+     * condition, like a {@link DummyAnimation} with a callable, at the first sample where the condition is true.
+     */
+    @Override
+    public float getAt(long time) {
+        if (!isStarted()) {
+            start(time);
+            stepStart = time;
+        }
+        while (currentAnimation < animations.length) {
+            Animation animation = animations[currentAnimation];
+            if (!animation.isStarted()) animation.start(stepStart);
+            value = animation.getAt(time);
+            if (!animation.isFinished()) return value;
+            if (animation instanceof DummyAnimation && ((DummyAnimation) animation).done != null) stepStart = time;
+            else stepStart += (long) (animation.duration * 1_000_000);
+            currentAnimation++;
+        }
+        return value;
+    }
+
     @Override
     public boolean isFinished() {
         return currentAnimation >= animations.length;
@@ -38,18 +38,19 @@ public class ColorAnimation {
      * 3 = color palette changed
      */
     private int prevState = 0;
-    private Animation redAnimation;
-    private Animation greenAnimation;
-    private Animation blueAnimation;
-    private Animation alphaAnimation;
+    private final int redAnimation;
+    private final int greenAnimation;
+    private final int blueAnimation;
+    private final int alphaAnimation;
 
     public ColorAnimation(ColorPalette palette, int duration) {
         this.palette = palette;
         this.duration = duration;
-        redAnimation = new DummyAnimation(palette.getNormalColorf()[0]);
-        greenAnimation = new DummyAnimation(palette.getNormalColorf()[1]);
-        blueAnimation = new DummyAnimation(palette.getNormalColorf()[2]);
-        alphaAnimation = new DummyAnimation(palette.getNormalColorf()[3]);
+        float[] colors = palette.getNormalColorf();
+        redAnimation = AnimationEngine.INSTANCE.create(this, colors[0]);
+        greenAnimation = AnimationEngine.INSTANCE.create(this, colors[1]);
+        blueAnimation = AnimationEngine.INSTANCE.create(this, colors[2]);
+        alphaAnimation = AnimationEngine.INSTANCE.create(this, colors[3]);
     }
 
     public ColorAnimation(ColorPalette palette) {
@@ -67,20 +68,30 @@ public class ColorAnimation {
         int state = pressed ? 2 : hovered ? 1 : 0;
         if (state != prevState) {
             float[] newColors = pressed ? palette.getPressedColorf() : hovered ? palette.getHoveredColorf() : palette.getNormalColorf();
-            redAnimation = new EaseInOutQuad(duration, redAnimation.get(), newColors[0], false);
-            greenAnimation = new EaseInOutQuad(duration, greenAnimation.get(), newColors[1], false);
-            blueAnimation = new EaseInOutQuad(duration, blueAnimation.get(), newColors[2], false);
-            alphaAnimation = new EaseInOutQuad(duration, alphaAnimation.get(), newColors[3], false);
+            AnimationEngine engine = AnimationEngine.INSTANCE;
+            engine.animateTo(redAnimation, newColors[0], duration, AnimationEngine.EASE_IN_OUT_QUAD);
+            engine.animateTo(greenAnimation, newColors[1], duration, AnimationEngine.EASE_IN_OUT_QUAD);
+            engine.animateTo(blueAnimation, newColors[2], duration, AnimationEngine.EASE_IN_OUT_QUAD);
+            engine.animateTo(alphaAnimation, newColors[3], duration, AnimationEngine.EASE_IN_OUT_QUAD);
             prevState = state;
         }
-        return ((int) (alphaAnimation.get() * 255) << 24) | ((int) (redAnimation.get() * 255) << 16) | ((int) (greenAnimation.get() * 255) << 8) | ((int) (blueAnimation.get() * 255));
+        AnimationEngine engine = AnimationEngine.INSTANCE;
+        return ((int) (engine.get(alphaAnimation) * 255) << 24) | ((int) (engine.get(redAnimation) * 255) << 16) | ((int) (engine.get(greenAnimation) * 255) << 8) | ((int) (engine.get(blueAnimation) * 255));
     }
 
     /**
      * Return the current alpha of the color. This method is used to get the alpha of pressed buttons that have text/icons on them, so they also darken accordingly.
      */
     public float getAlpha() {
-        return alphaAnimation.get(0);
+        return AnimationEngine.INSTANCE.get(alphaAnimation);
+    }
+
+    /**
+     * @return If the color is not currently changing, so nothing needs to be redrawn for it
+     */
+    public boolean isFinished() {
+        AnimationEngine engine = AnimationEngine.INSTANCE;
+        return engine.isFinished(redAnimation) && engine.isFinished(greenAnimation) && engine.isFinished(blueAnimation) && engine.isFinished(alphaAnimation);
     }
 
     public ColorPalette getPalette() {
@@ -94,9 +105,9 @@ public class ColorAnimation {
     }
 
     public void setColors(float[] colors) {
-        redAnimation = new DummyAnimation(colors[0]);
-        greenAnimation = new DummyAnimation(colors[1]);
-        blueAnimation = new DummyAnimation(colors[2]);
-        alphaAnimation = new DummyAnimation(colors[3]);
+        AnimationEngine.INSTANCE.set(redAnimation, colors[0]);
+        AnimationEngine.INSTANCE.set(greenAnimation, colors[1]);
+        AnimationEngine.INSTANCE.set(blueAnimation, colors[2]);
+        AnimationEngine.INSTANCE.set(alphaAnimation, colors[3]);
     }
 }
@@ -353,11 +353,11 @@ public class ColorSelector {
                 inputs[i] = new TextInputField(40, 32, true, 4f) {
                     @Override
                     public void onClose() {
-                        inputs[index].setInput(color.getHSBA()[index] + "");
+                        inputs[index].setInput(color.getHSBA(index) + "");
                     }
                 };
                 inputs[i].setBoarderThickness(1f);
-                inputs[i].setInput(color.getHSBA()[i] + "");
+                inputs[i].setInput(color.getHSBA(i) + "");
             }
             if (!hasAlpha) inputs[3].disable(true);
         }
@@ -373,7 +373,7 @@ public class ColorSelector {
                 in.draw(vg, x - 12 + (42 * i), y, inputHandler);
                 if (in.isToggled()) {
                     editing = true;
-                    color.setHSBA(i, parseIntOrElse(in.getInput(), color.getHSBA()[i]));
+                    color.setHSBA(i, parseIntOrElse(in.getInput(), color.getHSBA(i)));
                     picker.onColorChanged();
                 }
             }
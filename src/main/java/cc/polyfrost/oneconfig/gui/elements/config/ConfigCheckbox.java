@@ -45,7 +45,7 @@ import java.awt.*;
 import java.lang.reflect.Field;
 
 public class ConfigCheckbox extends BasicOption {
-    private final ColorAnimation color = new ColorAnimation(ColorPalette.SECONDARY);
+    private ColorAnimation color;
     private Animation animation;
 
     public ConfigCheckbox(Field field, Object parent, String name, String description, String category, String subcategory, int size) {
@@ -61,9 +61,10 @@ public class ConfigCheckbox extends BasicOption {
     public void draw(long vg, int x, int y, InputHandler inputHandler) {
         final NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
         if (!isEnabled()) nanoVGHelper.setAlpha(vg, 0.5f);
+        if (color == null) color = new ColorAnimation(ColorPalette.SECONDARY);
         boolean toggled = false;
         try {
-            toggled = (boolean) get();
+            toggled = getBoolean();
             if (animation == null) animation = new EaseInOutQuad(0, 0, 1, !toggled);
         } catch (IllegalAccessException ignored) {
         }
@@ -95,6 +96,18 @@ public class ConfigCheckbox extends BasicOption {
         nanoVGHelper.setAlpha(vg, 1f);
     }
 
+    @Override
+    public boolean isAnimating() {
+        return super.isAnimating() || animation != null && !animation.isFinished() || color != null && !color.isFinished();
+    }
+
+    @Override
+    protected void releaseGuiState() {
+        super.releaseGuiState();
+        color = null;
+        animation = null;
+    }
+
     @Override
     protected float getNameX(int x) {
         return x + 32;
@@ -345,6 +345,12 @@ public class ConfigDropdown extends BasicOption {
         return 32;
     }
 
+    @Override
+    public boolean isAnimating() {
+        return super.isAnimating() || !backgroundColor.isFinished() || !atomColor.isFinished() || !colorAnimation.isFinished()
+                || scrollAnimation != null && !scrollAnimation.isFinished();
+    }
+
     @Override
     protected boolean shouldDrawDescription() {
         return super.shouldDrawDescription() && !opened;
@@ -63,7 +63,7 @@ public class ConfigDualOption extends BasicOption {
         final NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
         boolean toggled = false;
         try {
-            toggled = (boolean) get();
+            toggled = getBoolean();
             if (posAnimation == null) posAnimation = new EaseOutExpo(0, 228, 356, !toggled);
         } catch (IllegalAccessException ignored) {
         }
@@ -91,4 +91,15 @@ public class ConfigDualOption extends BasicOption {
         }
         if (toggled == posAnimation.isReversed()) posAnimation = new EaseOutExpo(300, 228, 356, !toggled);
     }
+
+    @Override
+    public boolean isAnimating() {
+        return super.isAnimating() || posAnimation != null && !posAnimation.isFinished();
+    }
+
+    @Override
+    protected void releaseGuiState() {
+        super.releaseGuiState();
+        posAnimation = null;
+    }
 }
@@ -38,13 +38,14 @@ import java.lang.reflect.Field;
 
 public class ConfigNumber extends BasicOption implements IFocusable {
     private final NumberInputField inputField;
-    private boolean isFloat = true;
+    private final boolean isFloat;
     private final int size;
 
     public ConfigNumber(Field field, Object parent, String name, String description, String category, String subcategory, float min, float max, int step, int size) {
         super(field, parent, name, description, category, subcategory, size);
         this.inputField = new NumberInputField(84, 32, 0, min, max, step);
         this.size = size;
+        this.isFloat = field == null || field.getType() != int.class && field.getType() != Integer.class;
     }
 
     public static ConfigNumber create(Field field, Object parent) {
@@ -67,11 +68,7 @@ public class ConfigNumber extends BasicOption implements IFocusable {
 
         if (!inputField.isToggled()) {
             try {
-                Object object = get();
-                if (object instanceof Integer)
-                    isFloat = false;
-                if (isFloat) value = (float) object;
-                else value = (int) object;
+                value = getFloat();
             } catch (IllegalAccessException ignored) {
             }
         }
@@ -45,7 +45,7 @@ import java.lang.reflect.Field;
 public class ConfigPageButton extends BasicOption {
     public final Page page;
     public final String description;
-    private final ColorAnimation backgroundColor = new ColorAnimation(ColorPalette.SECONDARY);
+    private ColorAnimation backgroundColor;
 
     public ConfigPageButton(Field field, Object parent, String name, String description, String category, String subcategory, OptionPage page) {
         super(field, parent, name, "", category, subcategory, 2);
@@ -65,6 +65,7 @@ public class ConfigPageButton extends BasicOption {
         boolean hovered = inputHandler.isAreaHovered(x - 16, y, 1024, height) && isEnabled();
         boolean clicked = hovered && inputHandler.isClicked();
         NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
+        if (backgroundColor == null) backgroundColor = new ColorAnimation(ColorPalette.SECONDARY);
 
         if (!isEnabled())
             nanoVGHelper.setAlpha(vg, 0.5f);
@@ -80,6 +81,17 @@ public class ConfigPageButton extends BasicOption {
         nanoVGHelper.setAlpha(vg, 1f);
     }
 
+    @Override
+    public boolean isAnimating() {
+        return super.isAnimating() || backgroundColor != null && !backgroundColor.isFinished();
+    }
+
+    @Override
+    protected void releaseGuiState() {
+        super.releaseGuiState();
+        backgroundColor = null;
+    }
+
     @Override
     public int getHeight() {
         return description.equals("") ? 64 : 96;
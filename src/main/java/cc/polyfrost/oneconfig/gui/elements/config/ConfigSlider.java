@@ -60,7 +60,7 @@ public class ConfigSlider extends BasicOption implements IFocusable {
     private final float min, max;
     private final int step;
     private final boolean instant;
-    private boolean isFloat = true;
+    private final boolean isFloat;
     private boolean dragging = false;
     private boolean mouseWasDown = false;
     private Animation stepsAnimation;
@@ -85,6 +85,7 @@ public class ConfigSlider extends BasicOption implements IFocusable {
         this.stepsAnimation = new DummyAnimation(0);
         this.targetAnimation = new DummyAnimation(0);
         this.stepSlideAnimation = new DummyAnimation(1);
+        this.isFloat = field == null || field.getType() != int.class && field.getType() != Integer.class;
     }
 
     public static ConfigSlider create(Field field, Object parent) {
@@ -147,11 +148,7 @@ public class ConfigSlider extends BasicOption implements IFocusable {
 
         if (!dragging && !inputField.isToggled()) {
             try {
-                Object object = get();
-                if (object instanceof Integer)
-                    isFloat = false;
-                if (isFloat) value = (float) object;
-                else value = (int) object;
+                value = getFloat();
                 xCoordinate = (int) MathUtils.clamp(MathUtils.map(value, min, max, x + 352, x + 864), x + 352, x + 864);
             } catch (IllegalAccessException ignored) {
             }
@@ -219,6 +216,11 @@ public class ConfigSlider extends BasicOption implements IFocusable {
         inputField.keyTyped(key, keyCode);
     }
 
+    @Override
+    public boolean isAnimating() {
+        return super.isAnimating() || !stepsAnimation.isFinished() || !targetAnimation.isFinished() || !stepSlideAnimation.isFinished();
+    }
+
     @Override
     public int getHeight() {
         return 32;
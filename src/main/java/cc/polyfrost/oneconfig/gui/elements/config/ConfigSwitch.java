@@ -61,7 +61,7 @@ public class ConfigSwitch extends BasicOption {
         final NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
         boolean toggled = false;
         try {
-            toggled = (boolean) get();
+            toggled = getBoolean();
             if (animation == null) {
                 animation = new EaseInOutQuad(0, 0, 1, !toggled);
                 color = new ColorAnimation(toggled ? ColorPalette.PRIMARY : ColorPalette.SECONDARY);
@@ -96,6 +96,18 @@ public class ConfigSwitch extends BasicOption {
         nanoVGHelper.setAlpha(vg, 1f);
     }
 
+    @Override
+    public boolean isAnimating() {
+        return super.isAnimating() || animation != null && !animation.isFinished() || color != null && !color.isFinished();
+    }
+
+    @Override
+    protected void releaseGuiState() {
+        super.releaseGuiState();
+        color = null;
+        animation = null;
+    }
+
     @Override
     protected float getNameX(int x) {
         return x + 50;
@@ -0,0 +1,134 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.gui.elements.text;
+
+import java.util.ArrayDeque;
+
+/**
+ * A bounded undo/redo history of the edits made to a text.
+ * <p>
+ * Every edit only stores the replaced range of the text, which is found by comparing the text before and after it,
+ * so large texts aren't copied for every keystroke. Characters typed one after another are merged into one edit.
+ * </p>
+ */
+final class TextEditHistory {
+    private static final int MAX_EDITS = 100;
+    private final ArrayDeque<Edit> undo = new ArrayDeque<>();
+    private final ArrayDeque<Edit> redo = new ArrayDeque<>();
+    private String text;
+    private int caret;
+
+    /**
+     * Record the edit which turned {@code before} into {@code after}.
+     */
+    void record(String before, int caretBefore, String after, int caretAfter) {
+        int maxCommon = Math.min(before.length(), after.length());
+        int prefix = 0;
+        while (prefix < maxCommon && before.charAt(prefix) == after.charAt(prefix)) prefix++;
+        int suffix = 0;
+        while (suffix < maxCommon - prefix && before.charAt(before.length() - 1 - suffix) == after.charAt(after.length() - 1 - suffix)) suffix++;
+        String removed = before.substring(prefix, before.length() - suffix);
+        String inserted = after.substring(prefix, after.length() - suffix);
+        redo.clear();
+
+        Edit last = undo.peekLast();
+        if (last != null && removed.isEmpty() && last.removed.isEmpty() && inserted.length() == 1 && inserted.charAt(0) != ' '
+                && last.start + last.inserted.length() == prefix) {
+            last.inserted += inserted;
+            last.caretAfter = caretAfter;
+            return;
+        }
+        undo.addLast(new Edit(prefix, removed, inserted, caretBefore, caretAfter));
+        if (undo.size() > MAX_EDITS) undo.removeFirst();
+    }
+
+    /**
+     * Undo the last edit.
+     *
+     * @return If there was an edit to undo, in which case the result is available from {@link #getText()} and {@link #getCaret()}
+     */
+    boolean undo(String current) {
+        Edit edit = undo.pollLast();
+        if (edit == null) return false;
+        if (!current.startsWith(edit.inserted, edit.start)) {
+            // the text was changed from somewhere else
+            clear();
+            return false;
+        }
+        text = current.substring(0, edit.start) + edit.removed + current.substring(edit.start + edit.inserted.length());
+        caret = edit.caretBefore;
+        redo.addLast(edit);
+        return true;
+    }
+
+    /**
+     * Redo the last undone edit.
+     *
+     * @return If there was an edit to redo, in which case the result is available from {@link #getText()} and {@link #getCaret()}
+     */
+    boolean redo(String current) {
+        Edit edit = redo.pollLast();
+        if (edit == null) return false;
+        if (!current.startsWith(edit.removed, edit.start)) {
+            clear();
+            return false;
+        }
+        text = current.substring(0, edit.start) + edit.inserted + current.substring(edit.start + edit.removed.length());
+        caret = edit.caretAfter;
+        undo.addLast(edit);
+        return true;
+    }
+
+    String getText() {
+        return text;
+    }
+
+    int getCaret() {
+        return caret;
+    }
+
+    void clear() {
+        undo.clear();
+        redo.clear();
+    }
+
+    private static class Edit {
+        private final int start;
+        private final String removed;
+        private final int caretBefore;
+        private String inserted;
+        private int caretAfter;
+
+        private Edit(int start, String removed, String inserted, int caretBefore, int caretAfter) {
+            this.start = start;
+            this.removed = removed;
+            this.inserted = inserted;
+            this.caretBefore = caretBefore;
+            this.caretAfter = caretAfter;
+        }
+    }
+}
@@ -42,7 +42,6 @@ import cc.polyfrost.oneconfig.renderer.scissor.ScissorHelper;
 import cc.polyfrost.oneconfig.utils.IOUtils;
 import cc.polyfrost.oneconfig.utils.InputHandler;
 import cc.polyfrost.oneconfig.utils.MathUtils;
-import cc.polyfrost.oneconfig.utils.TextUtils;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
@@ -69,6 +68,9 @@ public class TextInputField extends BasicElement {
     protected boolean centered = false;
     protected SVG icon;
     protected ArrayList<String> wrappedText = null;
+    private final TextWidthCache inputWidths = new TextWidthCache();
+    private final WrappedLines wrappedLines = new WrappedLines();
+    private final TextEditHistory history = new TextEditHistory();
     private long clickTimeD1;
     private int lines = 1;
     private static boolean anyCheckInit = false;
@@ -180,26 +182,29 @@ public class TextInputField extends BasicElement {
             float width;
             StringBuilder s = new StringBuilder();
             if (multiLine) {
-                wrappedText = TextUtils.wrapText(vg, input, this.width - 24, textSize, Fonts.REGULAR);
+                inputWidths.update(vg, input, textSize, Fonts.REGULAR, password);
+                if (wrappedLines.update(input, this.width - 24, inputWidths) || wrappedText == null) {
+                    wrappedText = wrappedLines.getLines();
+                }
                 lines = wrappedText.size();
                 if (!toggled) caretPos = wrappedText.get(wrappedText.size() - 1).length();
                 int caretLine = (int) MathUtils.clamp(getCaretLine(caretPos), 0, wrappedText.size() - 1);
-                width = nanoVGHelper.getTextWidth(vg, wrappedText.get(caretLine).substring(0, getLineCaret(caretPos, caretLine)), textSize, Fonts.REGULAR);
-            } else if (!password) {
-                width = nanoVGHelper.getTextWidth(vg, input.substring(0, caretPos), textSize, Fonts.REGULAR);
+                width = getLineWidth(caretLine, getLineCaret(caretPos, caretLine));
             } else {
-                for (int i = 0; i < input.length(); i++) {
-                    s.append("*");
+                if (password) {
+                    for (int i = 0; i < input.length(); i++) {
+                        s.append("*");
+                    }
                 }
-                width = nanoVGHelper.getTextWidth(vg, s.substring(0, caretPos), textSize, Fonts.REGULAR);
+                width = getInputWidth(0, caretPos);
             }
             if (hovered) {
                 int state = Platform.getMousePlatform().getButtonState(0); //todo does this work
                 if (state == 1) {
                     if (multiLine) {
                         int caretLine = Math.max(0, Math.min(wrappedText.size() - 1, (int) Math.floor((inputHandler.mouseY() - y - 10) / 24f)));
-                        caretPos = calculatePos(inputHandler.mouseX(), wrappedText.get(caretLine));
-                    } else prevCaret = calculatePos(inputHandler.mouseX(), input);
+                        caretPos = calculatePos(inputHandler.mouseX(), wrappedLines.getLineStart(caretLine), wrappedLines.getLineEnd(caretLine));
+                    } else prevCaret = calculatePos(inputHandler.mouseX(), 0, input.length());
                     if (System.currentTimeMillis() - clickTimeD1 < 300) {
                         onDoubleClick(inputHandler);
                         isDoubleClick = true;
@@ -217,7 +222,7 @@ public class TextInputField extends BasicElement {
                     }
                 }
             }
-            float halfTextWidth = this.getTextWidth(vg, input) / 2f;
+            float halfTextWidth = getInputWidth(0, input.length()) / 2f;
             if (start != 0f && end != 0f && toggled) {
                 if (!multiLine) {
                     nanoVGHelper.drawRect(vg, start, y + height / 2f - 10, end, 20, Colors.GRAY_300);
@@ -235,20 +240,19 @@ public class TextInputField extends BasicElement {
                 if (Platform.getMousePlatform().isButtonDown(0) && !isDoubleClick) {
                     if (multiLine) {
                         int caretLine = Math.max(0, Math.min(wrappedText.size() - 1, (int) Math.floor((inputHandler.mouseY() - y - 10) / 24f)));
-                        caretPos = calculatePos(inputHandler.mouseX(), wrappedText.get(caretLine));
-                        for (int i = 0; i < caretLine; i++) caretPos += wrappedText.get(i).length();
-                    } else caretPos = calculatePos(inputHandler.mouseX(), input);
+                        caretPos = wrappedLines.getLineStart(caretLine) + calculatePos(inputHandler.mouseX(), wrappedLines.getLineStart(caretLine), wrappedLines.getLineEnd(caretLine));
+                    } else caretPos = calculatePos(inputHandler.mouseX(), 0, input.length());
                     if (caretPos > prevCaret) {
-                        if (!centered) start = x + 12 + this.getTextWidth(vg, input.substring(0, prevCaret));
+                        if (!centered) start = x + 12 + getInputWidth(0, prevCaret);
                         else
-                            start = x + this.width / 2f - halfTextWidth + this.getTextWidth(vg, input.substring(0, prevCaret));
-                        end = this.getTextWidth(vg, input.substring(prevCaret, caretPos));
+                            start = x + this.width / 2f - halfTextWidth + getInputWidth(0, prevCaret);
+                        end = getInputWidth(prevCaret, caretPos);
                         selectedText = input.substring(prevCaret, caretPos);
                     } else {
-                        if (!centered) start = x + 12 + this.getTextWidth(vg, input.substring(0, prevCaret));
+                        if (!centered) start = x + 12 + getInputWidth(0, prevCaret);
                         else
-                            start = x + this.width / 2f - halfTextWidth + this.getTextWidth(vg, input.substring(0, prevCaret));
-                        end = -this.getTextWidth(vg, input.substring(caretPos, prevCaret));
+                            start = x + this.width / 2f - halfTextWidth + getInputWidth(0, prevCaret);
+                        end = -getInputWidth(caretPos, prevCaret);
                         selectedText = input.substring(caretPos, prevCaret);
                     }
                 }
@@ -303,6 +307,24 @@ public class TextInputField extends BasicElement {
     }
 
     public void keyTyped(char c, int key) {
+        if (toggled && (UKeyboard.isKeyComboCtrlZ(key) || UKeyboard.isKeyComboCtrlY(key) || UKeyboard.isKeyComboCtrlShiftZ(key))) {
+            if (UKeyboard.isKeyComboCtrlZ(key) ? history.undo(input) : history.redo(input)) {
+                input = history.getText();
+                caretPos = history.getCaret();
+                prevCaret = caretPos;
+                selectedText = null;
+                start = 0f;
+                end = 0f;
+            }
+            return;
+        }
+        String before = input;
+        int caretBefore = caretPos;
+        handleKey(c, key);
+        if (!input.equals(before)) history.record(before, caretBefore, input, caretPos);
+    }
+
+    private void handleKey(char c, int key) {
         try {
             if (toggled) {
                 if (UKeyboard.isKeyComboCtrlC(key)) {
@@ -340,11 +362,11 @@ public class TextInputField extends BasicElement {
                     if (UKeyboard.isKeyComboCtrlA(key)) {
                         prevCaret = 0;
                         caretPos = input.length();
-                        start = !centered ? x + 12 : x + this.width / 2f - this.getTextWidth(vg, input) / 2f;
+                        start = !centered ? x + 12 : x + this.width / 2f - getInputWidth(0, input.length()) / 2f;
                         selectedText = input;
-                        if (!multiLine) end = this.getTextWidth(vg, input);
+                        if (!multiLine) end = getInputWidth(0, input.length());
                         if (multiLine) {
-                            end = this.getTextWidth(vg, wrappedText.get(wrappedText.size() - 1));
+                            end = getLineWidth(wrappedText.size() - 1, wrappedText.get(wrappedText.size() - 1).length());
                             startLine = 0;
                             endLine = wrappedText.size() - 1;
                         }
@@ -498,56 +520,39 @@ public class TextInputField extends BasicElement {
             int caretLine = Math.max(0, Math.min(wrappedText.size() - 1, (int) Math.floor((inputHandler.mouseY() - y - 10) / 24f)));
             startLine = caretLine;
             endLine = caretLine;
-            start = x + 12 + this.getTextWidth(vg, wrappedText.get(caretLine).substring(0, getLineCaret(prevCaret, startLine)));
-            end = this.getTextWidth(vg, wrappedText.get(caretLine).substring(getLineCaret(prevCaret, startLine), getLineCaret(caretPos, startLine)));
+            start = x + 12 + getLineWidth(caretLine, getLineCaret(prevCaret, startLine));
+            end = getLineWidth(caretLine, getLineCaret(caretPos, startLine)) - getLineWidth(caretLine, getLineCaret(prevCaret, startLine));
         } else {
-            start = x + 12 + this.getTextWidth(vg, input.substring(0, prevCaret));
-            end = this.getTextWidth(vg, input.substring(prevCaret, caretPos));
+            start = x + 12 + getInputWidth(0, prevCaret);
+            end = getInputWidth(prevCaret, caretPos);
         }
     }
 
-    private int calculatePos(float pos, String string) {
+    /**
+     * @return The caret position under the given x position, relative to the start of the range
+     */
+    private int calculatePos(float pos, int start, int end) {
         if (centered) pos -= 12;
-        String s1 = "";
-        int i;
-        for (char c : string.toCharArray()) {
-            if (pos - x - 12 < 0) {
-                return 0;
-            }
-            if (pos - x - 12 > this.getTextWidth(vg, string)) {
-                return string.length();
-            }
-            s1 += c;
-            i = (int) this.getTextWidth(vg, s1);
-            if (i >= pos - x - 16) {
-                return s1.length();
-            }
-        }
-        return 0;
+        if (start == end || pos - x - 12 < 0) return 0;
+        if (pos - x - 12 > getInputWidth(start, end)) return end - start;
+        return inputWidths.getIndex(start, end, pos - x - 16);
     }
 
     public void onClose() {
     }
 
-    private float getTextWidth(long vg, String s) {
-        if (password) {
-            StringBuilder s1 = new StringBuilder();
-            while (s1.length() < s.length()) {
-                s1.append('*');
-            }
-            s = s1.toString();
-        }
-        return NanoVGHelper.INSTANCE.getTextWidth(vg, s, textSize, Fonts.REGULAR);
+    private float getInputWidth(int start, int end) {
+        inputWidths.update(vg, input, textSize, Fonts.REGULAR, password);
+        return inputWidths.getWidth(start, end);
+    }
+
+    private float getLineWidth(int line, int end) {
+        int lineStart = wrappedLines.getLineStart(line);
+        return getInputWidth(lineStart, lineStart + end);
     }
 
     private int getCaretLine(int caret) {
-        int pos = 0;
-        for (int i = 0; i < wrappedText.size(); i++) {
-            pos += wrappedText.get(i).length();
-            if (pos < caret - 1) continue;
-            return i;
-        }
-        return 0;
+        return wrappedLines.getCaretLine(caret);
     }
 
     private float getCaretX(int caret) {
@@ -565,16 +570,7 @@ public class TextInputField extends BasicElement {
     }
 
     private int getLineCaret(int caret, int line) {
-        int pos = 0;
-        for (String text : wrappedText) {
-            int length = text.length();
-            if (pos + length < caret - 1) {
-                pos += length;
-                continue;
-            }
-            return caret - pos;
-        }
-        return 0;
+        return caret - wrappedLines.getLineStart(line);
     }
 
     public int getLines() {
@@ -0,0 +1,127 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.gui.elements.text;
+
+import cc.polyfrost.oneconfig.renderer.NanoVGHelper;
+import cc.polyfrost.oneconfig.renderer.font.Font;
+
+import java.util.Arrays;
+
+/**
+ * Caches the width of every prefix of a text, so caret positions, selections and click positions can be
+ * found without measuring growing substrings.
+ * <p>
+ * When the text changes, only the characters between the common prefix and suffix of the old and new text are
+ * measured, and the rest of the widths are shifted. Widths are summed from single character advances, so they
+ * ignore kerning.
+ * </p>
+ */
+final class TextWidthCache {
+    private final float[] asciiAdvances = new float[128];
+    private String text = "";
+    private float[] advances = new float[16];
+    private float[] prefixWidths = new float[17];
+    private float fontSize = -1;
+    private Font font;
+    private boolean password;
+
+    /**
+     * @return The width of {@code text.substring(start, end)} of the text the cache was last updated with
+     */
+    float getWidth(int start, int end) {
+        return prefixWidths[clamp(end)] - prefixWidths[clamp(start)];
+    }
+
+    /**
+     * @param width The minimum width
+     * @return The length of the shortest non-empty prefix of {@code text.substring(start, end)} which is at least as
+     * wide as the given width, or the length of the substring if there is none.
+     */
+    int getIndex(int start, int end, float width) {
+        start = clamp(start);
+        end = clamp(end);
+        int low = start + 1;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if ((int) (prefixWidths[mid] - prefixWidths[start]) >= width) high = mid;
+            else low = mid + 1;
+        }
+        return high - start;
+    }
+
+    private int clamp(int index) {
+        return Math.max(0, Math.min(text.length(), index));
+    }
+
+    /**
+     * Make the cache match the given text, measuring only the characters which changed.
+     */
+    void update(long vg, String text, float fontSize, Font font, boolean password) {
+        if (fontSize != this.fontSize || font != this.font || password != this.password) {
+            this.fontSize = fontSize;
+            this.font = font;
+            this.password = password;
+            Arrays.fill(asciiAdvances, -1);
+            this.text = "";
+        }
+        String old = this.text;
+        if (text.equals(old)) {
+            this.text = text;
+            return;
+        }
+        int oldLength = old.length();
+        int length = text.length();
+        int prefix = 0;
+        int maxCommon = Math.min(oldLength, length);
+        while (prefix < maxCommon && old.charAt(prefix) == text.charAt(prefix)) prefix++;
+        int suffix = 0;
+        while (suffix < maxCommon - prefix && old.charAt(oldLength - 1 - suffix) == text.charAt(length - 1 - suffix)) suffix++;
+
+        if (advances.length < length) {
+            advances = Arrays.copyOf(advances, Math.max(length, advances.length * 2));
+            prefixWidths = Arrays.copyOf(prefixWidths, advances.length + 1);
+        }
+        System.arraycopy(advances, oldLength - suffix, advances, length - suffix, suffix);
+        for (int i = prefix; i < length - suffix; i++) {
+            advances[i] = getAdvance(vg, password ? '*' : text.charAt(i));
+        }
+        for (int i = prefix; i < length; i++) {
+            prefixWidths[i + 1] = prefixWidths[i] + advances[i];
+        }
+        this.text = text;
+    }
+
+    private float getAdvance(long vg, char c) {
+        if (c < asciiAdvances.length) {
+            float advance = asciiAdvances[c];
+            if (advance < 0) asciiAdvances[c] = advance = NanoVGHelper.INSTANCE.getTextWidth(vg, String.valueOf(c), fontSize, font);
+            return advance;
+        }
+        return NanoVGHelper.INSTANCE.getTextWidth(vg, String.valueOf(c), fontSize, font);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.gui.elements.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Word-wraps a text into lines and indexes the start of every line.
+ * <p>
+ * Lines break after the last space which still fits, like {@link cc.polyfrost.oneconfig.utils.TextUtils#wrapText},
+ * and together cover the whole text. When the text is edited, wrapping restarts from the line before the edit, and
+ * the old lines are reused as soon as a line starts at the same place in the unchanged rest of the text.
+ * </p>
+ */
+final class WrappedLines {
+    private String text = "";
+    private int[] lineStarts = new int[8];
+    private int lineCount = 0;
+    private float maxWidth = Float.NaN;
+
+    /**
+     * Re-wrap the text, if it or the maximum width changed.
+     *
+     * @param widths The width cache, already updated with the text
+     * @return If the lines changed
+     */
+    boolean update(String text, float maxWidth, TextWidthCache widths) {
+        if (maxWidth != this.maxWidth) {
+            this.maxWidth = maxWidth;
+            this.text = text;
+            lineCount = 0;
+            wrapFrom(0, widths, null, 0, 0, 0);
+            return true;
+        }
+        String old = this.text;
+        if (text.equals(old)) {
+            this.text = text;
+            return false;
+        }
+        int oldLength = old.length();
+        int length = text.length();
+        int maxCommon = Math.min(oldLength, length);
+        int prefix = 0;
+        while (prefix < maxCommon && old.charAt(prefix) == text.charAt(prefix)) prefix++;
+        int suffix = 0;
+        while (suffix < maxCommon - prefix && old.charAt(oldLength - 1 - suffix) == text.charAt(length - 1 - suffix)) suffix++;
+
+        // the first word of the edited line might now fit on the line before it
+        int line = Math.max(0, getLineAt(prefix) - 1);
+        int[] oldStarts = lineStarts.clone();
+        int oldCount = lineCount;
+        this.text = text;
+        lineCount = line;
+        wrapFrom(oldStarts[line], widths, oldStarts, oldCount, length - suffix, length - oldLength);
+        return true;
+    }
+
+    /**
+     * @return The amount of lines
+     */
+    int getLineCount() {
+        return lineCount;
+    }
+
+    int getLineStart(int line) {
+        return lineStarts[line];
+    }
+
+    int getLineEnd(int line) {
+        return line + 1 < lineCount ? lineStarts[line + 1] : text.length();
+    }
+
+    /**
+     * @param caret The caret position
+     * @return The line the caret is on. A caret between two lines belongs to the first one.
+     */
+    int getCaretLine(int caret) {
+        int low = 0;
+        int high = lineCount - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lineStarts[mid + 1] >= caret) high = mid;
+            else low = mid + 1;
+        }
+        return low;
+    }
+
+    /**
+     * @return The lines, as substrings of the text
+     */
+    ArrayList<String> getLines() {
+        ArrayList<String> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) lines.add(text.substring(getLineStart(i), getLineEnd(i)));
+        return lines;
+    }
+
+    /**
+     * @return The last line which starts at or before the given index
+     */
+    private int getLineAt(int index) {
+        int line = Arrays.binarySearch(lineStarts, 0, lineCount, index);
+        return line >= 0 ? line : -line - 2;
+    }
+
+    /**
+     * @param unchangedFrom The index from which the text is the same as the old text, shifted by {@code delta}
+     */
+    private void wrapFrom(int start, TextWidthCache widths, int[] oldStarts, int oldCount, int unchangedFrom, int delta) {
+        addLine(start);
+        int pos = start;
+        while (true) {
+            pos = wrapLine(pos, widths);
+            if (pos >= text.length()) return;
+            if (oldStarts != null && pos >= unchangedFrom) {
+                int old = Arrays.binarySearch(oldStarts, 0, oldCount, pos - delta);
+                if (old >= 0) {
+                    for (int i = old; i < oldCount; i++) addLine(oldStarts[i] + delta);
+                    return;
+                }
+            }
+            addLine(pos);
+        }
+    }
+
+    /**
+     * @return The start of the line after the one starting at the given index
+     */
+    private int wrapLine(int start, TextWidthCache widths) {
+        int length = text.length();
+        int lastFit = -1;
+        int from = start;
+        while (true) {
+            int space = text.indexOf(' ', from);
+            if (space == -1) space = length;
+            if (widths.getWidth(start, space) < maxWidth) {
+                if (space == length) return length;
+                lastFit = space;
+                from = space + 1;
+            } else if (lastFit != -1) {
+                return lastFit + 1;
+            } else {
+                // a single word which is wider than the line
+                return space == length ? length : space + 1;
+            }
+        }
+    }
+
+    private void addLine(int start) {
+        if (lineCount == lineStarts.length) lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+        lineStarts[lineCount++] = start;
+    }
+}
@@ -32,11 +32,11 @@ import cc.polyfrost.oneconfig.config.elements.OptionPage;
 import cc.polyfrost.oneconfig.config.elements.OptionSubcategory;
 import cc.polyfrost.oneconfig.gui.OneConfigGui;
 import cc.polyfrost.oneconfig.gui.elements.BasicButton;
+import cc.polyfrost.oneconfig.internal.config.Preferences;
 import cc.polyfrost.oneconfig.renderer.NanoVGHelper;
 import cc.polyfrost.oneconfig.renderer.font.Fonts;
 import cc.polyfrost.oneconfig.renderer.scissor.ScissorHelper;
 import cc.polyfrost.oneconfig.utils.InputHandler;
-import cc.polyfrost.oneconfig.utils.SearchUtils;
 import cc.polyfrost.oneconfig.utils.color.ColorPalette;
 
 import java.util.ArrayList;
@@ -51,6 +51,7 @@ public class ModConfigPage extends Page {
     private String selectedCategory;
     private int totalSize = 724;
     private final boolean base;
+    private BasicOption scrollOption = null;
 
     public ModConfigPage(OptionPage page, boolean base) {
         super(page.name);
@@ -83,8 +84,14 @@ public class ModConfigPage extends Page {
         ScissorHelper scissorHelper = ScissorHelper.INSTANCE;
         int optionY = y + (page.categories.size() == 1 ? 16 : 64) + categoryY;
         List<OptionSubcategory> subcategories = getSubcategories();
+        int scrollY = -1;
         for (OptionSubcategory subCategory : subcategories) {
-            optionY += subCategory.draw(vg, x + 30, optionY, inputHandler);
+            int subcategoryY = optionY;
+            optionY += subCategory.draw(vg, x + 30, optionY, viewportTop, viewportBottom, inputHandler);
+            if (scrollOption != null && scrollY == -1) {
+                int y2 = subCategory.getOptionY(scrollOption);
+                if (y2 != -1) scrollY = subcategoryY + y2 - y;
+            }
         }
         scissorHelper.save();
         scissorHelper.clearScissors(vg);
@@ -93,6 +100,13 @@ public class ModConfigPage extends Page {
         }
         scissorHelper.restore(vg);
         totalSize = optionY - y;
+        if (scrollOption != null) {
+            scrollOption = null;
+            if (scrollY != -1 && totalSize > 728) {
+                scrollTarget = Math.max(728 - totalSize, Math.min(0, 16 - scrollY));
+                scrollAnimation = null;
+            }
+        }
     }
 
     @Override
@@ -113,7 +127,7 @@ public class ModConfigPage extends Page {
                 categoryY += 48;
             }
             if (searching) {
-                boolean similar = SearchUtils.isSimilar(button.getText(), OneConfigGui.INSTANCE.getSearchValue());
+                boolean similar = page.mod.searchIndex.isSimilar(button.getText(), OneConfigGui.INSTANCE.getSearchValue());
                 boolean selected = button.isToggled();
                 button.setToggled(similar);
                 button.draw(vg, buttonX, y + 16 + returned, inputHandler);
@@ -149,23 +163,33 @@ public class ModConfigPage extends Page {
     }
 
     private final ArrayList<OptionSubcategory> empty = new ArrayList<>();
-
+    private String searchedValue = null;
+    private int searchedDistance = -1;
+    private List<OptionSubcategory> searchResults = empty;
+
+    /**
+     * @return The subcategories to show. Search results are only recomputed when the search or the search distance
+     * changes.
+     */
     private List<OptionSubcategory> getSubcategories() {
-        if (OneConfigGui.INSTANCE.getSearchValue().isEmpty()) {
+        String searchValue = OneConfigGui.INSTANCE.getSearchValue();
+        if (searchValue.isEmpty()) {
             if (page.categories.isEmpty()) return empty;
             else return page.categories.get(selectedCategory).subcategories;
+        } else if (searchValue.equals(searchedValue) && searchedDistance == Preferences.searchDistance) {
+            return searchResults;
         } else {
             List<OptionSubcategory> subcategories = new ArrayList<>();
             for (Map.Entry<String, OptionCategory> category : page.categories.entrySet()) {
-                if (SearchUtils.isSimilar(category.getKey(), OneConfigGui.INSTANCE.getSearchValue())) {
+                if (page.mod.searchIndex.isSimilar(category.getKey(), searchValue)) {
                     subcategories.addAll(category.getValue().subcategories);
                 } else {
                     for (OptionSubcategory subcategory : category.getValue().subcategories) {
-                        if (SearchUtils.isSimilar(subcategory.getName(), OneConfigGui.INSTANCE.getSearchValue())) {
+                        if (page.mod.searchIndex.isSimilar(subcategory.getName(), searchValue)) {
                             subcategories.add(subcategory);
                         } else {
                             for (BasicOption option : subcategory.options) {
-                                if (SearchUtils.isSimilar(option.name, OneConfigGui.INSTANCE.getSearchValue())) {
+                                if (page.mod.searchIndex.isSimilar(option.name, searchValue)) {
                                     subcategories.add(subcategory);
                                     break;
                                 }
@@ -174,6 +198,9 @@ public class ModConfigPage extends Page {
                     }
                 }
             }
+            searchedValue = searchValue;
+            searchedDistance = Preferences.searchDistance;
+            searchResults = subcategories;
             return subcategories;
         }
     }
@@ -190,6 +217,19 @@ public class ModConfigPage extends Page {
         OneConfigGui.INSTANCE.closeColorSelector();
     }
 
+    /**
+     * Switch to the category of an option and scroll to it when the page is drawn next.
+     *
+     * @param option The option to scroll to
+     */
+    public void scrollToOption(BasicOption option) {
+        switchCategory(option.category);
+        for (BasicButton button : categories) {
+            if (button.getText().equals(option.category)) button.setToggled(true);
+        }
+        scrollOption = option;
+    }
+
     @Override
     public int getMaxScrollHeight() {
         return totalSize;
@@ -35,18 +35,25 @@ import cc.polyfrost.oneconfig.gui.elements.ModCard;
 import cc.polyfrost.oneconfig.internal.assets.Colors;
 import cc.polyfrost.oneconfig.internal.config.OneConfigConfig;
 import cc.polyfrost.oneconfig.internal.config.core.ConfigCore;
-import cc.polyfrost.oneconfig.utils.SearchUtils;
+import cc.polyfrost.oneconfig.internal.config.core.OptionSearch;
 import cc.polyfrost.oneconfig.renderer.NanoVGHelper;
 import cc.polyfrost.oneconfig.renderer.font.Fonts;
 import cc.polyfrost.oneconfig.utils.InputHandler;
+import cc.polyfrost.oneconfig.utils.SearchIndex;
 import cc.polyfrost.oneconfig.utils.color.ColorPalette;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 public class ModsPage extends Page {
 
     public final ArrayList<ModCard> modCards = new ArrayList<>();
     private final ArrayList<BasicButton> modCategories = new ArrayList<>();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private List<ModCard> shownCards = null;
+    private String shownFilter = null;
+    private int shownCategory = -1;
     private int size;
 
     public ModsPage() {
@@ -71,23 +78,45 @@ public class ModsPage extends Page {
         String filter = OneConfigGui.INSTANCE == null ? "" : OneConfigGui.INSTANCE.getSearchValue().toLowerCase().trim();
         int iX = x + 16;
         int iY = y + 72;
-        ArrayList<ModCard> finalModCards = new ArrayList<>(modCards);
-        for (ModCard modCard : finalModCards) {
-            if (inSelection(modCard) && (filter.equals("") || SearchUtils.isSimilar(modCard.getModData().name, filter))) {
-                if (iY + 135 >= y - scroll && iY <= y + 728 - scroll) modCard.draw(vg, iX, iY, inputHandler);
-                iX += 260;
-                if (iX > x + 796) {
-                    iX = x + 16;
-                    iY += 135;
-                }
+        for (ModCard modCard : getShownCards(filter, true)) {
+            if (iY + 135 >= y - scroll && iY <= y + 728 - scroll) modCard.draw(vg, iX, iY, inputHandler);
+            iX += 260;
+            if (iX > x + 796) {
+                iX = x + 16;
+                iY += 135;
             }
         }
         size = iY - y + 135;
-        if (iX == x + 16 && iY == y + 72) {
+        List<OptionSearch.Result> results = filter.isEmpty() ? Collections.emptyList() : OptionSearch.search(filter);
+        if (!results.isEmpty()) {
+            size = drawSearchResults(vg, x, iX == x + 16 ? iY : iY + 135, results, inputHandler) - y;
+        } else if (iX == x + 16 && iY == y + 72) {
             NanoVGHelper.INSTANCE.drawText(vg, "Looks like there is nothing here. Try another category?", x + 16, y + 72, Colors.WHITE_60, 14f, Fonts.MEDIUM);
         }
     }
 
+    /**
+     * Draw the options of all mods which match the search. Clicking one opens its page.
+     *
+     * @return The y position below the results
+     */
+    private int drawSearchResults(long vg, int x, int y, List<OptionSearch.Result> results, InputHandler inputHandler) {
+        NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
+        nanoVGHelper.drawText(vg, "Options", x + 16, y + 12, Colors.WHITE_90, 18f, Fonts.SEMIBOLD);
+        y += 32;
+        for (OptionSearch.Result result : results) {
+            if (y + 48 >= viewportTop && y <= viewportBottom) {
+                boolean hovered = inputHandler.isAreaHovered(x + 16, y, 1024, 48);
+                nanoVGHelper.drawRoundedRect(vg, x + 16, y, 1024, 48, hovered ? Colors.GRAY_500 : Colors.GRAY_700, 12f);
+                nanoVGHelper.drawText(vg, result.getOption().name, x + 32, y + 16, Colors.WHITE_90, 14f, Fonts.MEDIUM);
+                nanoVGHelper.drawText(vg, result.getPath(), x + 32, y + 34, Colors.WHITE_60, 12f, Fonts.REGULAR);
+                if (hovered && inputHandler.isClicked()) result.open();
+            }
+            y += 56;
+        }
+        return y;
+    }
+
     @Override
     public int drawStatic(long vg, int x, int y, InputHandler inputHandler) {
         int iXCat = x + 16;
@@ -101,6 +130,38 @@ public class ModsPage extends Page {
         return 60;
     }
 
+    /**
+     * Get the mod cards which match the search and the selected category. The result is only recomputed when the
+     * search, the category or the mods change.
+     *
+     * @param filter        The search
+     * @param useCategories Whether to only show the mods of the selected category
+     * @return The mod cards to show
+     */
+    protected List<ModCard> getShownCards(String filter, boolean useCategories) {
+        int category = -1;
+        if (useCategories) {
+            for (int i = 0; i < modCategories.size(); i++) {
+                if (modCategories.get(i).isToggled()) {
+                    category = i;
+                    break;
+                }
+            }
+        }
+        if (shownCards == null || !filter.equals(shownFilter) || category != shownCategory) {
+            ArrayList<ModCard> cards = new ArrayList<>();
+            for (ModCard modCard : modCards) {
+                if ((!useCategories || inSelection(modCard)) && (filter.isEmpty() || searchIndex.isSimilar(modCard.getModData().name, filter))) {
+                    cards.add(modCard);
+                }
+            }
+            shownCards = cards;
+            shownFilter = filter;
+            shownCategory = category;
+        }
+        return shownCards;
+    }
+
     private void unselect(int index) {
         for (int i = 0; i < modCategories.size(); i++) {
             if (index == i) continue;
@@ -114,6 +175,7 @@ public class ModsPage extends Page {
 
     public void reloadMods() {
         modCards.clear();
+        shownCards = null;
         for (Mod modData : ConfigCore.mods) {
             if (this instanceof SubModsPage) {
                 Mod parentMod = ((SubModsPage) this).parentMod;
@@ -55,6 +55,11 @@ public abstract class Page {
     protected float scroll;
     public final ArrayList<Page> parents = new ArrayList<>();
     private String previousSearch = "";
+    /**
+     * The vertical range of the screen the scrolling content of the page is visible in, so pages can skip drawing
+     * what is scrolled out of view.
+     */
+    protected int viewportTop = Integer.MIN_VALUE, viewportBottom = Integer.MAX_VALUE;
 
     public Page(String title) {
         this.title = title;
@@ -82,6 +87,8 @@ public abstract class Page {
         ScissorHelper scissorHelper = ScissorHelper.INSTANCE;
         int maxScroll = getMaxScrollHeight();
         int scissorOffset = drawStatic(vg, x, y, inputHandler);
+        viewportTop = y + scissorOffset;
+        viewportBottom = y + 728;
         if (OneConfigGui.INSTANCE != null) {
             if (!Objects.equals(previousSearch, OneConfigGui.INSTANCE.getSearchValue())) {
                 previousSearch = OneConfigGui.INSTANCE.getSearchValue();
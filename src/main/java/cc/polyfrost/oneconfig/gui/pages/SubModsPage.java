@@ -33,9 +33,6 @@ import cc.polyfrost.oneconfig.internal.assets.Colors;
 import cc.polyfrost.oneconfig.renderer.NanoVGHelper;
 import cc.polyfrost.oneconfig.renderer.font.Fonts;
 import cc.polyfrost.oneconfig.utils.InputHandler;
-import cc.polyfrost.oneconfig.utils.SearchUtils;
-
-import java.util.ArrayList;
 
 public class SubModsPage extends ModsPage {
 
@@ -52,15 +49,12 @@ public class SubModsPage extends ModsPage {
         String filter = OneConfigGui.INSTANCE == null ? "" : OneConfigGui.INSTANCE.getSearchValue().toLowerCase().trim();
         int iX = x + 16;
         int iY = y + 16;
-        ArrayList<ModCard> finalModCards = new ArrayList<>(modCards);
-        for (ModCard modCard : finalModCards) {
-            if (filter.isEmpty() || SearchUtils.isSimilar(modCard.getModData().name, filter)) {
-                if (iY + 135 >= y - scroll && iY <= y + 728 - scroll) modCard.draw(vg, iX, iY, inputHandler);
-                iX += 260;
-                if (iX > x + 796) {
-                    iX = x + 16;
-                    iY += 135;
-                }
+        for (ModCard modCard : getShownCards(filter, false)) {
+            if (iY + 135 >= y - scroll && iY <= y + 728 - scroll) modCard.draw(vg, iX, iY, inputHandler);
+            iX += 260;
+            if (iX > x + 796) {
+                iX = x + 16;
+                iY += 135;
             }
         }
         size = iY - y + 135;
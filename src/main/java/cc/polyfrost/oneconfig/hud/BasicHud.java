@@ -111,12 +111,21 @@ public abstract class BasicHud extends Hud {
 
     @Override
     public void drawAll(UMatrixStack matrices, boolean example) {
+        HudRenderContext context = getRenderContext();
         if (!example && !shouldShow()) return;
+        drawAll(matrices, example, context);
+    }
+
+    @Override
+    public void drawAll(UMatrixStack matrices, boolean example, HudRenderContext context) {
         preRender(example);
         position.setSize(getWidth(scale, example) + paddingX * scale * 2f, getHeight(scale, example) + paddingY * scale * 2f);
+        if (!example && isOffScreen(context)) return;
+        float x = position.getX(context.screenWidth);
+        float y = position.getY(context.screenHeight);
         if (shouldDrawBackground() && background)
-            drawBackground(position.getX(), position.getY(), position.getWidth(), position.getHeight(), scale);
-        draw(matrices, position.getX() + paddingX * scale, position.getY() + paddingY * scale, scale, example);
+            drawBackground(x, y, position.getWidth(), position.getHeight(), scale);
+        draw(matrices, x + paddingX * scale, y + paddingY * scale, scale, example);
     }
 
     @Override
@@ -29,10 +29,8 @@ package cc.polyfrost.oneconfig.hud;
 import cc.polyfrost.oneconfig.config.Config;
 import cc.polyfrost.oneconfig.config.annotations.Exclude;
 import cc.polyfrost.oneconfig.config.annotations.Switch;
-import cc.polyfrost.oneconfig.gui.OneConfigGui;
 import cc.polyfrost.oneconfig.internal.hud.HudCore;
 import cc.polyfrost.oneconfig.libs.universal.UMatrixStack;
-import cc.polyfrost.oneconfig.platform.Platform;
 
 /**
  * Represents a HUD element in OneConfig.
@@ -189,19 +187,57 @@ public abstract class Hud {
 
     /**
      * Draw the background, the hud and all childed huds, used by HudCore
+     *
+     * @param matrices The UMatrixStack used for rendering in higher versions
+     * @param example  If the HUD is being rendered in example form
      */
     public void drawAll(UMatrixStack matrices, boolean example) {
-        if (!example && !shouldShow()) return;
+        HudRenderContext context = getRenderContext();
+        if (!example && !shouldShow(context)) return;
+        drawAll(matrices, example, context);
+    }
+
+    /**
+     * Draw the background, the hud and all childed huds with the given render context. HUDs which are fully
+     * off-screen after their size was updated are not drawn.
+     *
+     * @param matrices The UMatrixStack used for rendering in higher versions
+     * @param example  If the HUD is being rendered in example form
+     * @param context  The render context of the current frame
+     */
+    public void drawAll(UMatrixStack matrices, boolean example, HudRenderContext context) {
         preRender(example);
         position.setSize(getWidth(scale, example), getHeight(scale, example));
-        draw(matrices, position.getX(), position.getY(), scale, example);
+        if (!example && isOffScreen(context)) return;
+        draw(matrices, position.getX(context.screenWidth), position.getY(context.screenHeight), scale, example);
+    }
+
+    /**
+     * @return The render context of the frame HudCore is drawing, or a new one when called outside of it
+     */
+    protected HudRenderContext getRenderContext() {
+        HudRenderContext context = HudCore.getRenderContext();
+        return context != null ? context : HudRenderContext.create(deltaTicks);
+    }
+
+    /**
+     * @param context The render context of the current frame
+     * @return If the bounds of the HUD are fully outside the screen, the size has to be set for this frame first
+     */
+    protected boolean isOffScreen(HudRenderContext context) {
+        float x = position.getX(context.screenWidth);
+        float y = position.getY(context.screenHeight);
+        return x > context.screenWidth || y > context.screenHeight || x + position.getWidth() < 0 || y + position.getHeight() < 0;
+    }
+
+    protected boolean shouldShow(HudRenderContext context) {
+        if (!showInGuis && context.guiOpen) return false;
+        if (!showInChat && context.inChat) return false;
+        return showInDebug || !context.inDebug;
     }
 
     protected boolean shouldShow() {
-        if (!showInGuis && Platform.getGuiPlatform().getCurrentScreen() != null && !(Platform.getGuiPlatform().getCurrentScreen() instanceof OneConfigGui))
-            return false;
-        if (!showInChat && Platform.getGuiPlatform().isInChat()) return false;
-        return showInDebug || !Platform.getGuiPlatform().isInDebug();
+        return shouldShow(getRenderContext());
     }
 
     /**
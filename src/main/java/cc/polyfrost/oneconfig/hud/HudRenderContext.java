@@ -0,0 +1,108 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.hud;
+
+import cc.polyfrost.oneconfig.gui.OneConfigGui;
+import cc.polyfrost.oneconfig.libs.universal.UResolution;
+import cc.polyfrost.oneconfig.platform.GuiPlatform;
+import cc.polyfrost.oneconfig.platform.Platform;
+import cc.polyfrost.oneconfig.utils.gui.GuiUtils;
+
+/**
+ * Immutable snapshot of the state HUDs need while rendering, computed once per frame
+ * and shared by every HUD drawn in that frame.
+ *
+ * @see Hud#drawAll(cc.polyfrost.oneconfig.libs.universal.UMatrixStack, boolean, HudRenderContext)
+ */
+public class HudRenderContext {
+    /**
+     * The scaled width of the screen.
+     */
+    public final float screenWidth;
+    /**
+     * The scaled height of the screen.
+     */
+    public final float screenHeight;
+    /**
+     * The scale factor of the screen.
+     */
+    public final float scaleFactor;
+    /**
+     * If a screen other than the OneConfig GUI is open.
+     */
+    public final boolean guiOpen;
+    /**
+     * If the chat is open.
+     */
+    public final boolean inChat;
+    /**
+     * If the F3 (debug) screen is open.
+     */
+    public final boolean inDebug;
+    /**
+     * How much time has elapsed since the last tick, in ticks.
+     */
+    public final float partialTicks;
+    /**
+     * The time the frame was started at, in milliseconds.
+     *
+     * @see GuiUtils#getFrameTime()
+     */
+    public final long frameTime;
+
+    public HudRenderContext(float screenWidth, float screenHeight, float scaleFactor, boolean guiOpen, boolean inChat, boolean inDebug, float partialTicks, long frameTime) {
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.scaleFactor = scaleFactor;
+        this.guiOpen = guiOpen;
+        this.inChat = inChat;
+        this.inDebug = inDebug;
+        this.partialTicks = partialTicks;
+        this.frameTime = frameTime;
+    }
+
+    /**
+     * Create a render context from the current state of the game.
+     *
+     * @param partialTicks How much time has elapsed since the last tick, in ticks
+     * @return The render context
+     */
+    public static HudRenderContext create(float partialTicks) {
+        GuiPlatform guiPlatform = Platform.getGuiPlatform();
+        Object screen = guiPlatform.getCurrentScreen();
+        return new HudRenderContext(
+                UResolution.getScaledWidth(),
+                UResolution.getScaledHeight(),
+                (float) UResolution.getScaleFactor(),
+                screen != null && !(screen instanceof OneConfigGui),
+                guiPlatform.isInChat(),
+                guiPlatform.isInDebug(),
+                partialTicks,
+                GuiUtils.getFrameTime()
+        );
+    }
+}
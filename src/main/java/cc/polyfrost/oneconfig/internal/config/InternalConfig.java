@@ -29,14 +29,14 @@ package cc.polyfrost.oneconfig.internal.config;
 import cc.polyfrost.oneconfig.config.Config;
 import cc.polyfrost.oneconfig.config.data.Mod;
 import cc.polyfrost.oneconfig.config.gson.exclusion.ProfileExclusionStrategy;
+import cc.polyfrost.oneconfig.internal.config.core.ConfigWriter;
 import com.google.gson.FieldAttributes;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -65,23 +65,29 @@ public abstract class InternalConfig extends Config {
 
     @Override
     public void save() {
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(Paths.get("OneConfig/" + configFile)), StandardCharsets.UTF_8))) {
-            writer.write(gson.toJson(this));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        JsonElement snapshot = gson.toJsonTree(this);
+        ConfigWriter.write(Paths.get("OneConfig/" + configFile), () -> gson.toJson(snapshot), null);
     }
 
     @Override
     public void load() {
         Path path = Paths.get("OneConfig/" + configFile);
+        ConfigWriter.flush(path);
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8))) {
             gson.fromJson(reader, this.getClass());
+            return;
         } catch (Exception e) {
             e.printStackTrace();
             File file = path.toFile();
             file.renameTo(new File(file.getParentFile(), file.getName() + ".corrupted"));
         }
+        Path backup = ConfigWriter.getBackup(path);
+        if (!Files.exists(backup)) return;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(backup), StandardCharsets.UTF_8))) {
+            gson.fromJson(reader, this.getClass());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
     }
 
     private static final class InternalConfigExclusionStrategy extends ProfileExclusionStrategy {
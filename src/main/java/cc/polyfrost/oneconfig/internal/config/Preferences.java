@@ -111,6 +111,16 @@ public class Preferences extends InternalConfig {
     )
     public static int timeUntilReset = 15;
 
+    @Slider(
+            name = "Unload Hidden Options After",
+            category = "Behavior",
+            subcategory = "GUI Settings",
+            description = "How much time (in seconds) an option has to be out of view before its animations are unloaded",
+            min = 5,
+            max = 300
+    )
+    public static int optionUnloadDelay = 60;
+
     @Number(
             name = "Search Distance",
             min = 0,
@@ -122,6 +132,14 @@ public class Preferences extends InternalConfig {
     )
     public static int searchDistance = 2;
 
+    @Switch(
+            name = "Enable Animations",
+            description = "Disabling this skips every animation straight to its end",
+            category = "Animations",
+            subcategory = "Global"
+    )
+    public static boolean enableAnimations = true;
+
     @Switch(
             name = "Opening Animation",
             description = "Plays an animation when opening the GUI",
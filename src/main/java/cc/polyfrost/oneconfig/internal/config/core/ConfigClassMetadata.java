@@ -0,0 +1,293 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.internal.config.core;
+
+import cc.polyfrost.oneconfig.config.annotations.Button;
+import cc.polyfrost.oneconfig.config.annotations.CustomOption;
+import cc.polyfrost.oneconfig.config.annotations.HUD;
+import cc.polyfrost.oneconfig.config.annotations.Page;
+import cc.polyfrost.oneconfig.config.annotations.SubConfig;
+import cc.polyfrost.oneconfig.internal.config.annotations.Option;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The reflection data of a class which OneConfig reads: its fields, methods and their annotations, and the options
+ * declared by the class in the order {@link cc.polyfrost.oneconfig.config.Config#generateOptionList} adds them.
+ * <p>
+ * The fields and methods of a class and their annotations are only looked up the first time the class is used. The
+ * result is stored with a {@link ClassValue}, so it is dropped together with the class. When OneConfig's annotation
+ * processor generated an option table for the class (see {@link GeneratedConfigCode}), the options and buttons are
+ * taken from it, and the annotations of other fields and methods are only looked up when they are asked for.
+ */
+public final class ConfigClassMetadata {
+    private static final ClassValue<ConfigClassMetadata> CACHE = new ClassValue<ConfigClassMetadata>() {
+        @Override
+        protected ConfigClassMetadata computeValue(Class<?> type) {
+            return new ConfigClassMetadata(type);
+        }
+    };
+
+    /**
+     * Fields declared by the class which are options, pages, HUDs or sub configs
+     */
+    public final List<OptionField> fields;
+    /**
+     * Methods declared by the class which are buttons
+     */
+    public final List<ButtonMethod> buttons;
+    /**
+     * Fields declared by the class and its superclasses, starting with the class itself
+     */
+    public final List<Field> allFields;
+    /**
+     * Fields of the class and its superclasses which are {@link Option}s, starting with the class itself
+     */
+    public final List<OptionField> allOptions;
+
+    private final Class<?> clazz;
+    private final Map<Class<? extends Annotation>, Annotation> classAnnotations;
+    private final Map<Field, Map<Class<? extends Annotation>, Annotation>> fieldAnnotations = new ConcurrentHashMap<>();
+    private final Map<Method, Map<Class<? extends Annotation>, Annotation>> methodAnnotations = new ConcurrentHashMap<>();
+    private final Map<String, Field> fieldsByName = new HashMap<>();
+
+    private ConfigClassMetadata(Class<?> clazz) {
+        this.clazz = clazz;
+        classAnnotations = resolveAnnotations(clazz);
+        List<Field> allFields = new ArrayList<>();
+        for (Field field : clazz.getDeclaredFields()) {
+            fieldsByName.put(field.getName(), field);
+            allFields.add(field);
+        }
+        List<OptionField> fields = readGeneratedFields();
+        if (fields == null) fields = scanFields(allFields);
+        List<ButtonMethod> buttons = readGeneratedButtons();
+        if (buttons == null) buttons = scanMethods();
+        List<OptionField> allOptions = new ArrayList<>();
+        for (OptionField field : fields) {
+            if (field.kind == Kind.OPTION) allOptions.add(field);
+        }
+        Class<?> superclass = clazz.getSuperclass();
+        if (superclass != null) {
+            ConfigClassMetadata parent = get(superclass);
+            allFields.addAll(parent.allFields);
+            allOptions.addAll(parent.allOptions);
+        }
+        this.fields = Collections.unmodifiableList(fields);
+        this.buttons = Collections.unmodifiableList(buttons);
+        this.allFields = Collections.unmodifiableList(allFields);
+        this.allOptions = Collections.unmodifiableList(allOptions);
+    }
+
+    private List<OptionField> scanFields(List<Field> declaredFields) {
+        List<OptionField> fields = new ArrayList<>();
+        for (Field field : declaredFields) {
+            Map<Class<? extends Annotation>, Annotation> annotations = resolveAnnotations(field);
+            fieldAnnotations.put(field, annotations);
+            if (annotations.containsKey(Option.class)) fields.add(new OptionField(field, Kind.OPTION, annotations.get(Option.class)));
+            else if (annotations.containsKey(CustomOption.class)) fields.add(new OptionField(field, Kind.CUSTOM_OPTION, annotations.get(CustomOption.class)));
+            else if (field.isAnnotationPresent(Page.class)) fields.add(new OptionField(field, Kind.PAGE, field.getAnnotation(Page.class)));
+            else if (field.isAnnotationPresent(HUD.class)) fields.add(new OptionField(field, Kind.HUD, field.getAnnotation(HUD.class)));
+            else if (field.isAnnotationPresent(SubConfig.class)) fields.add(new OptionField(field, Kind.SUB_CONFIG, field.getAnnotation(SubConfig.class)));
+        }
+        return fields;
+    }
+
+    private List<ButtonMethod> scanMethods() {
+        List<ButtonMethod> buttons = new ArrayList<>();
+        for (Method method : clazz.getDeclaredMethods()) {
+            Map<Class<? extends Annotation>, Annotation> annotations = resolveAnnotations(method);
+            methodAnnotations.put(method, annotations);
+            Button button = (Button) annotations.get(Button.class);
+            if (button != null) buttons.add(new ButtonMethod(method, button));
+        }
+        return buttons;
+    }
+
+    /**
+     * Read the generated table of option fields, which holds the name, kind and annotation type of every option field.
+     *
+     * @return the option fields, or null if there is no table or it doesn't match the class, which is then scanned instead
+     */
+    @Nullable
+    private List<OptionField> readGeneratedFields() {
+        String[] table = GeneratedConfigCode.getOptionTable(clazz, "FIELDS");
+        if (table == null || table.length % 3 != 0) return null;
+        List<OptionField> fields = new ArrayList<>(table.length / 3);
+        try {
+            for (int i = 0; i < table.length; i += 3) {
+                Field field = fieldsByName.get(table[i]);
+                Kind kind = Kind.valueOf(table[i + 1]);
+                Class<? extends Annotation> type = Class.forName(table[i + 2], false, clazz.getClassLoader()).asSubclass(Annotation.class);
+                if (field == null || !field.isAnnotationPresent(type)) return null;
+                Annotation annotation;
+                if (kind == Kind.OPTION) annotation = type.getAnnotation(Option.class);
+                else if (kind == Kind.CUSTOM_OPTION && type != CustomOption.class) annotation = type.getAnnotation(CustomOption.class);
+                else annotation = field.getAnnotation(type);
+                if (annotation == null) return null;
+                fields.add(new OptionField(field, kind, annotation));
+            }
+        } catch (ClassNotFoundException | IllegalArgumentException | ClassCastException e) {
+            return null;
+        }
+        return fields;
+    }
+
+    /**
+     * Read the generated table of buttons, which holds the names of the button methods, which don't take parameters.
+     *
+     * @return the buttons, or null if there is no table or it doesn't match the class, which is then scanned instead
+     */
+    @Nullable
+    private List<ButtonMethod> readGeneratedButtons() {
+        String[] table = GeneratedConfigCode.getOptionTable(clazz, "BUTTONS");
+        if (table == null) return null;
+        List<ButtonMethod> buttons = new ArrayList<>(table.length);
+        for (String name : table) {
+            try {
+                Method method = clazz.getDeclaredMethod(name);
+                Button button = method.getAnnotation(Button.class);
+                if (button == null) return null;
+                buttons.add(new ButtonMethod(method, button));
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+        return buttons;
+    }
+
+    /**
+     * @param clazz class to get the metadata of
+     * @return the metadata of the class, which is only computed once
+     */
+    public static ConfigClassMetadata get(Class<?> clazz) {
+        return CACHE.get(clazz);
+    }
+
+    /**
+     * @param name name of the field
+     * @return the field with this name declared by the class, or null if there is none
+     */
+    @Nullable
+    public Field getField(String name) {
+        return fieldsByName.get(name);
+    }
+
+    /**
+     * @return the annotation of the given type on the class, or the first one found on the annotations of the class
+     */
+    @Nullable
+    public <T extends Annotation> T getAnnotation(Class<T> annotationType) {
+        return annotationType.cast(classAnnotations.get(annotationType));
+    }
+
+    /**
+     * @param field field declared by the class
+     * @return the annotation of the given type on the field, or the first one found on the annotations of the field
+     */
+    @Nullable
+    public <T extends Annotation> T getAnnotation(Field field, Class<T> annotationType) {
+        Map<Class<? extends Annotation>, Annotation> annotations = field.getDeclaringClass() == clazz ? fieldAnnotations.computeIfAbsent(field, ConfigClassMetadata::resolveAnnotations) : resolveAnnotations(field);
+        return annotationType.cast(annotations.get(annotationType));
+    }
+
+    /**
+     * @param method method declared by the class
+     * @return the annotation of the given type on the method, or the first one found on the annotations of the method
+     */
+    @Nullable
+    public <T extends Annotation> T getAnnotation(Method method, Class<T> annotationType) {
+        Map<Class<? extends Annotation>, Annotation> annotations = method.getDeclaringClass() == clazz ? methodAnnotations.computeIfAbsent(method, ConfigClassMetadata::resolveAnnotations) : resolveAnnotations(method);
+        return annotationType.cast(annotations.get(annotationType));
+    }
+
+    /**
+     * Collect the annotations of an element, and the annotations of those annotations. An annotation on the element
+     * itself takes precedence over one on its annotations, and otherwise the first annotation found wins.
+     */
+    private static Map<Class<? extends Annotation>, Annotation> resolveAnnotations(AnnotatedElement element) {
+        Annotation[] declared = element.getDeclaredAnnotations();
+        Annotation[] direct = element.getAnnotations();
+        if (declared.length == 0 && direct.length == 0) return Collections.emptyMap();
+        Map<Class<? extends Annotation>, Annotation> annotations = new HashMap<>();
+        for (Annotation annotation : direct) annotations.put(annotation.annotationType(), annotation);
+        for (Annotation annotation : declared) {
+            for (Annotation meta : annotation.annotationType().getAnnotations()) {
+                annotations.putIfAbsent(meta.annotationType(), meta);
+            }
+        }
+        return annotations;
+    }
+
+    public enum Kind {
+        OPTION,
+        CUSTOM_OPTION,
+        PAGE,
+        HUD,
+        SUB_CONFIG
+    }
+
+    public static final class OptionField {
+        public final Field field;
+        public final Kind kind;
+        private final Annotation annotation;
+
+        private OptionField(Field field, Kind kind, Annotation annotation) {
+            this.field = field;
+            this.kind = kind;
+            this.annotation = annotation;
+        }
+
+        /**
+         * @return the annotation which decided the kind of this field, for example {@link Option} for {@link Kind#OPTION}
+         */
+        @SuppressWarnings("unchecked")
+        public <T extends Annotation> T getAnnotation() {
+            return (T) annotation;
+        }
+    }
+
+    public static final class ButtonMethod {
+        public final Method method;
+        public final Button button;
+
+        private ButtonMethod(Method method, Button button) {
+            this.method = method;
+            this.button = button;
+        }
+    }
+}
@@ -28,26 +28,58 @@ package cc.polyfrost.oneconfig.internal.config.core;
 
 import cc.polyfrost.oneconfig.config.data.Mod;
 import cc.polyfrost.oneconfig.config.data.ModType;
+import cc.polyfrost.oneconfig.events.EventManager;
+import cc.polyfrost.oneconfig.events.event.PreShutdownEvent;
+import cc.polyfrost.oneconfig.events.event.Stage;
+import cc.polyfrost.oneconfig.events.event.TickEvent;
 import cc.polyfrost.oneconfig.internal.config.OneConfigConfig;
 import cc.polyfrost.oneconfig.internal.config.SubMainConfig;
 import cc.polyfrost.oneconfig.internal.hud.HudCore;
+import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class ConfigCore {
     public static List<Mod> mods = new ArrayList<>();
     public static HashMap<Mod, List<Mod>> subMods = new HashMap<>();
+    private static final Logger LOGGER = LogManager.getLogger("OneConfig Config Core");
+    private static final AtomicLong writtenSaves = new AtomicLong();
+    private static final AtomicLong skippedSaves = new AtomicLong();
 
+    /**
+     * Save all configs which changed since they were last saved.
+     */
     public static void saveAll() {
+        int written = 0, skipped = 0;
         for (Mod modData : mods) {
-            modData.config.save();
+            if (modData.config.saveIfDirty()) written++;
+            else skipped++;
         }
+        writtenSaves.addAndGet(written);
+        skippedSaves.addAndGet(skipped);
+        LOGGER.debug("Saved {} configs, skipped {} unchanged configs", written, skipped);
+    }
+
+    /**
+     * @return how many configs were written by {@link #saveAll()} so far
+     */
+    public static long getWrittenSaves() {
+        return writtenSaves.get();
+    }
+
+    /**
+     * @return how many unchanged configs were skipped by {@link #saveAll()} so far
+     */
+    public static long getSkippedSaves() {
+        return skippedSaves.get();
     }
 
     public static void reInitAll() {
@@ -79,12 +111,29 @@ public class ConfigCore {
     }
 
     static {
-        Executors.newSingleThreadScheduledExecutor()
-                .scheduleAtFixedRate(
-                        ConfigCore::saveAll,
-                        0,
-                        30,
-                        TimeUnit.SECONDS
-                );
+        EventManager.INSTANCE.register(new AutoSaver());
+    }
+
+    /**
+     * Saves the configs every 30 seconds, and before the game shuts down. This is done on the game thread, so the
+     * values of the configs are copied while nothing changes them.
+     */
+    private static class AutoSaver {
+        private static final long INTERVAL = TimeUnit.SECONDS.toNanos(30);
+        private long lastSave = System.nanoTime();
+
+        @Subscribe
+        private void onTick(TickEvent event) {
+            if (event.stage != Stage.START || System.nanoTime() - lastSave < INTERVAL) return;
+            lastSave = System.nanoTime();
+            saveAll();
+        }
+
+        @Subscribe
+        private void onPreShutdown(PreShutdownEvent event) {
+            saveAll();
+            ConfigWriter.flush();
+            ConfigSnapshot.save();
+        }
     }
 }
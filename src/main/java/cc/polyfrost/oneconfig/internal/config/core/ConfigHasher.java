@@ -0,0 +1,97 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.internal.config.core;
+
+import cc.polyfrost.oneconfig.config.core.OneColor;
+import cc.polyfrost.oneconfig.config.core.OneKeyBind;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Hashes the values of the fields of a config, without serializing it, to find out cheaply if it was changed without
+ * being marked as dirty.
+ * <p>
+ * Values are hashed by their contents where that is known: primitives, strings, enums, arrays, collections, maps and
+ * OneConfig's own value types. Other objects are hashed with their own {@link Object#hashCode()}, which may not notice
+ * when they are changed, so the hash can only tell that a config changed, never that it didn't.
+ */
+public final class ConfigHasher {
+    /**
+     * How many times in a row a config may be found unchanged by its hash before its values are compared in full.
+     */
+    public static final int FULL_CHECK_INTERVAL = 10;
+
+    private ConfigHasher() {
+    }
+
+    /**
+     * @param config The config
+     * @return A hash of the values of all non-transient fields of the config, including static ones
+     */
+    public static int hash(Object config) {
+        int hash = 1;
+        for (Field field : ConfigClassMetadata.get(config.getClass()).allFields) {
+            if (Modifier.isTransient(field.getModifiers())) continue;
+            try {
+                field.setAccessible(true);
+                hash = 31 * hash + hashValue(field.get(config));
+            } catch (Exception ignored) {
+            }
+        }
+        return hash;
+    }
+
+    private static int hashValue(Object value) {
+        if (value == null) return 0;
+        if (value instanceof OneColor) {
+            OneColor color = (OneColor) value;
+            // not the RGB, which changes all the time for chroma colors
+            return (((color.getHue() * 31 + color.getSaturation()) * 31 + color.getBrightness()) * 31 + color.getAlpha()) * 31 + color.getDataBit();
+        }
+        if (value instanceof OneKeyBind) return ((OneKeyBind) value).getKeyBinds().hashCode();
+        if (value.getClass().isArray()) {
+            int hash = 1;
+            for (int i = 0, length = Array.getLength(value); i < length; i++) hash = 31 * hash + hashValue(Array.get(value, i));
+            return hash;
+        }
+        if (value instanceof Collection) {
+            int hash = 1;
+            for (Object element : (Collection<?>) value) hash = 31 * hash + hashValue(element);
+            return hash;
+        }
+        if (value instanceof Map) {
+            int hash = 0;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) hash += hashValue(entry.getKey()) ^ hashValue(entry.getValue());
+            return hash;
+        }
+        return value.hashCode();
+    }
+}
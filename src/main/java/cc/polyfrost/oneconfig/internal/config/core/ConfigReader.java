@@ -0,0 +1,157 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.internal.config.core;
+
+import cc.polyfrost.oneconfig.events.EventManager;
+import cc.polyfrost.oneconfig.events.event.InitializationEvent;
+import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads and parses config files on a pool of background threads.
+ * <p>
+ * While the game starts, the files of every config are read ahead of time, so by the time a mod initializes its config
+ * the file is usually parsed already and only its values have to be applied. Files which were read ahead are only used
+ * once, and are dropped when they are written again or once the game has finished starting. Files which didn't change
+ * since the last time the game was closed are taken from the {@link ConfigSnapshot} instead of being parsed again.
+ */
+public final class ConfigReader {
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ThreadPoolExecutor executor;
+    private static final ConcurrentHashMap<Path, Future<JsonElement>> reads = new ConcurrentHashMap<>();
+    private static volatile boolean prefetched = false;
+
+    static {
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        executor = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "OneConfig Config Reader " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        EventManager.INSTANCE.register(new ConfigReader());
+    }
+
+    private ConfigReader() {
+    }
+
+    /**
+     * Start reading all config files in the given directories, the first time this is called.
+     *
+     * @param directories The directories to read the files of
+     */
+    public static void prefetch(File... directories) {
+        if (prefetched) return;
+        prefetched = true;
+        for (Map.Entry<Path, JsonElement> file : ConfigSnapshot.load().entrySet()) {
+            reads.putIfAbsent(file.getKey(), CompletableFuture.completedFuture(file.getValue()));
+        }
+        for (File directory : directories) {
+            File[] files = directory.listFiles((dir, name) -> name.endsWith(".json"));
+            if (files == null) continue;
+            for (File file : files) prefetch(file.toPath());
+        }
+    }
+
+    /**
+     * Start reading a file in the background.
+     *
+     * @param path The file to read
+     */
+    public static void prefetch(Path path) {
+        reads.computeIfAbsent(path, p -> executor.submit(() -> parse(p)));
+    }
+
+    /**
+     * Read and parse a file, using the result of {@link #prefetch(Path)} if the file was read ahead.
+     *
+     * @param path The file to read
+     * @return The parsed contents of the file
+     * @throws IOException if the file couldn't be read or parsed
+     */
+    public static JsonElement read(Path path) throws IOException {
+        Future<JsonElement> read = reads.remove(path);
+        if (read == null) return parse(path);
+        try {
+            return read.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return parse(path);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException("Failed to parse " + path, cause);
+        }
+    }
+
+    /**
+     * Forget the contents of a file which were read ahead, because the file changed.
+     *
+     * @param path The file
+     */
+    public static void invalidate(Path path) {
+        Future<JsonElement> read = reads.remove(path);
+        if (read != null) read.cancel(false);
+    }
+
+    private static JsonElement parse(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        JsonElement tree;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8))) {
+            tree = new JsonParser().parse(reader);
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to parse " + path, e);
+        }
+        ConfigSnapshot.update(path, attributes, tree);
+        return tree;
+    }
+
+    @Subscribe
+    private void onInit(InitializationEvent event) {
+        // configs which weren't loaded while starting won't use their files which were read ahead
+        for (Path path : reads.keySet()) invalidate(path);
+    }
+}
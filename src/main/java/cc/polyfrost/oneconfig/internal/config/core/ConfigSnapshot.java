@@ -0,0 +1,270 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.internal.config.core;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * A single binary file holding the parsed contents of every config file, so they don't have to be read and parsed one
+ * by one while the game starts.
+ * <p>
+ * The JSON files stay the source of truth: the contents of a file are only taken from the snapshot when its size and
+ * modification time are the same as when it was last read or written, and a snapshot which is from another version or
+ * fails its checksum is ignored. The snapshot is written when the game closes. It can be turned off with
+ * {@code -Doneconfig.configSnapshot=false}.
+ */
+public final class ConfigSnapshot {
+    private static final Logger LOGGER = LogManager.getLogger("OneConfig Config Snapshot");
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("oneconfig.configSnapshot", "true"));
+    private static final Path FILE = new File("OneConfig/cache/configs.bin").toPath();
+    private static final int MAGIC = 0x4F43534E;
+    private static final int VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte NUMBER = 3;
+    private static final byte STRING = 4;
+    private static final byte ARRAY = 5;
+    private static final byte OBJECT = 6;
+
+    private static final ConcurrentHashMap<Path, Entry> entries = new ConcurrentHashMap<>();
+    private static volatile boolean changed = false;
+
+    private ConfigSnapshot() {
+    }
+
+    /**
+     * Read the snapshot.
+     *
+     * @return The contents of the config files which didn't change since the snapshot was written
+     */
+    public static Map<Path, JsonElement> load() {
+        Map<Path, JsonElement> files = new HashMap<>();
+        if (!ENABLED || !Files.exists(FILE)) return files;
+        try {
+            byte[] bytes = Files.readAllBytes(FILE);
+            if (bytes.length < 12) throw new IOException("Snapshot is too short");
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - 4);
+            int expectedCrc = (bytes[bytes.length - 4] & 0xFF) << 24 | (bytes[bytes.length - 3] & 0xFF) << 16 | (bytes[bytes.length - 2] & 0xFF) << 8 | bytes[bytes.length - 1] & 0xFF;
+            if ((int) crc.getValue() != expectedCrc) throw new IOException("Checksum mismatch");
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+            if (in.readInt() != MAGIC) throw new IOException("Not a config snapshot");
+            if (in.readInt() != VERSION) return files;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Path path = Paths.get(readString(in));
+                long size = in.readLong();
+                long modified = in.readLong();
+                JsonElement tree = readElement(in);
+                if (!matches(path, size, modified)) continue;
+                entries.put(path, new Entry(size, modified, tree));
+                files.put(path, tree);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Ignoring unreadable config snapshot", e);
+            files.clear();
+            entries.clear();
+        }
+        LOGGER.debug("Loaded {} configs from the snapshot", files.size());
+        return files;
+    }
+
+    /**
+     * Remember the contents of a config file which was just read or written.
+     *
+     * @param path       The file
+     * @param attributes The attributes of the file, taken before it was read or after it was written
+     * @param tree       The contents of the file, which must not be modified afterwards
+     */
+    public static void update(Path path, BasicFileAttributes attributes, JsonElement tree) {
+        if (!ENABLED) return;
+        entries.put(path, new Entry(attributes.size(), attributes.lastModifiedTime().toMillis(), tree));
+        changed = true;
+    }
+
+    /**
+     * Write the snapshot if a config file was read or written since it was loaded.
+     */
+    public static void save() {
+        if (!ENABLED || !changed) return;
+        changed = false;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            Map<Path, Entry> snapshot = new HashMap<>(entries);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<Path, Entry> entry : snapshot.entrySet()) {
+                writeString(out, entry.getKey().toString());
+                out.writeLong(entry.getValue().size);
+                out.writeLong(entry.getValue().modified);
+                writeElement(out, entry.getValue().tree);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+            Files.createDirectories(FILE.getParent());
+            Path temp = FILE.resolveSibling(FILE.getFileName() + ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            try {
+                Files.move(temp, FILE, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, FILE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            LOGGER.debug("Wrote {} configs to the snapshot", snapshot.size());
+        } catch (Exception e) {
+            LOGGER.error("Failed to write the config snapshot", e);
+        }
+    }
+
+    private static boolean matches(Path path, long size, long modified) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.size() == size && attributes.lastModifiedTime().toMillis() == modified;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void writeElement(DataOutputStream out, JsonElement element) throws IOException {
+        if (element == null || element.isJsonNull()) {
+            out.writeByte(NULL);
+        } else if (element.isJsonObject()) {
+            out.writeByte(OBJECT);
+            JsonObject object = element.getAsJsonObject();
+            out.writeInt(object.entrySet().size());
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                writeString(out, entry.getKey());
+                writeElement(out, entry.getValue());
+            }
+        } else if (element.isJsonArray()) {
+            out.writeByte(ARRAY);
+            JsonArray array = element.getAsJsonArray();
+            out.writeInt(array.size());
+            for (JsonElement value : array) writeElement(out, value);
+        } else {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isBoolean()) {
+                out.writeByte(primitive.getAsBoolean() ? TRUE : FALSE);
+            } else if (primitive.isNumber()) {
+                out.writeByte(NUMBER);
+                writeString(out, primitive.getAsString());
+            } else {
+                out.writeByte(STRING);
+                writeString(out, primitive.getAsString());
+            }
+        }
+    }
+
+    private static JsonElement readElement(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                return JsonNull.INSTANCE;
+            case TRUE:
+                return new JsonPrimitive(true);
+            case FALSE:
+                return new JsonPrimitive(false);
+            case NUMBER:
+                // keeps every digit, and compares like the numbers the JSON parser creates, which aren't integral types
+                return new JsonPrimitive(new BigDecimal(readString(in)));
+            case STRING:
+                return new JsonPrimitive(readString(in));
+            case ARRAY: {
+                int size = in.readInt();
+                JsonArray array = new JsonArray();
+                for (int i = 0; i < size; i++) array.add(readElement(in));
+                return array;
+            }
+            case OBJECT: {
+                int size = in.readInt();
+                JsonObject object = new JsonObject();
+                for (int i = 0; i < size; i++) {
+                    String key = readString(in);
+                    object.add(key, readElement(in));
+                }
+                return object;
+            }
+            default:
+                throw new IOException("Unknown element type " + type);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) throw new IOException("Invalid string length " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class Entry {
+        private final long size;
+        private final long modified;
+        private final JsonElement tree;
+
+        private Entry(long size, long modified, JsonElement tree) {
+            this.size = size;
+            this.modified = modified;
+            this.tree = tree;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.internal.config.core;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Writes config files on a single background thread.
+ * <p>
+ * A file is written to a temporary file in the same directory first, which is synced to disk and then moved over the
+ * old file, so a crash never leaves a partially written config behind. The previous version of the file is kept as a
+ * backup next to it.
+ * <p>
+ * Writes are debounced: a file is written once it hasn't been saved again for {@link #DEBOUNCE_MILLIS}, and only its
+ * latest contents are encoded and written. A file which keeps being saved is still written after
+ * {@link #MAX_DELAY_MILLIS}. {@link #flush()} writes everything which is pending right away, {@link #flush(Path...)}
+ * only the given files.
+ */
+public final class ConfigWriter {
+    public static final long DEBOUNCE_MILLIS = 1000;
+    public static final long MAX_DELAY_MILLIS = 5000;
+    private static final Logger LOGGER = LogManager.getLogger("OneConfig Config Writer");
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OneConfig Config Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ConcurrentHashMap<Path, PendingWrite> pending = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ConfigWriter::flush, "OneConfig Config Writer Shutdown"));
+    }
+
+    private ConfigWriter() {
+    }
+
+    /**
+     * Write a file in the background.
+     *
+     * @param path      The file to write
+     * @param contents  Creates the contents of the file, called on the writer thread
+     * @param onFailure Run on the writer thread if writing these contents failed, may be null
+     */
+    public static void write(Path path, Supplier<String> contents, Runnable onFailure) {
+        write(path, new PendingWrite(contents, null, onFailure));
+    }
+
+    /**
+     * Write a config file in the background, and add its contents to the {@link ConfigSnapshot} once it is written.
+     *
+     * @param path      The file to write
+     * @param tree      The contents of the file, which must not be modified afterwards
+     * @param gson      Encodes the contents, called on the writer thread
+     * @param onFailure Run on the writer thread if writing these contents failed, may be null
+     */
+    public static void write(Path path, JsonElement tree, Gson gson, Runnable onFailure) {
+        write(path, new PendingWrite(() -> gson.toJson(tree), tree, onFailure));
+    }
+
+    private static void write(Path path, PendingWrite write) {
+        PendingWrite previous = pending.put(path, write);
+        if (previous != null) write.firstSaved = previous.firstSaved;
+        long maxDelay = MAX_DELAY_MILLIS - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - write.firstSaved);
+        // every save schedules its own write, which is skipped if the file was saved again in the meantime
+        executor.schedule(() -> {
+            if (pending.get(path) == write) writePending(path);
+        }, Math.max(0, Math.min(DEBOUNCE_MILLIS, maxDelay)), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Write all files which were saved so far and wait until they are written, for example before reading them.
+     */
+    public static void flush() {
+        waitFor(() -> {
+            for (Path path : pending.keySet()) writePending(path);
+        });
+    }
+
+    /**
+     * Write the given files if they were saved, and wait until they are written, for example before reading them.
+     * Other pending files keep waiting.
+     *
+     * @param paths The files
+     */
+    public static void flush(Path... paths) {
+        boolean saved = false;
+        for (Path path : paths) {
+            if (pending.containsKey(path)) {
+                saved = true;
+                break;
+            }
+        }
+        if (!saved) return;
+        waitFor(() -> {
+            for (Path path : paths) writePending(path);
+        });
+    }
+
+    private static void waitFor(Runnable task) {
+        try {
+            executor.submit(task).get(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            LOGGER.error("Failed to wait for config files to be written", e);
+        }
+    }
+
+    private static void writePending(Path path) {
+        PendingWrite write = pending.remove(path);
+        if (write == null) return;
+        try {
+            writeAtomically(path, write.contents.get());
+            if (write.tree != null) ConfigSnapshot.update(path, Files.readAttributes(path, BasicFileAttributes.class), write.tree);
+        } catch (Exception e) {
+            LOGGER.error("Failed to write " + path, e);
+            if (write.onFailure != null) write.onFailure.run();
+        } finally {
+            ConfigReader.invalidate(path);
+        }
+    }
+
+    /**
+     * @param path The file
+     * @return The backup of the file, which holds its previous contents
+     */
+    public static Path getBackup(Path path) {
+        return path.resolveSibling(path.getFileName() + ".bak");
+    }
+
+    private static void writeAtomically(Path path, String contents) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(contents.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        if (Files.exists(path)) backup(path);
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        // make the rename itself durable, this isn't supported on every platform
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void backup(Path path) throws IOException {
+        Path backup = getBackup(path);
+        Files.deleteIfExists(backup);
+        try {
+            // a hard link keeps the old contents when the file is replaced, without copying them
+            Files.createLink(backup, path);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(path, backup, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static class PendingWrite {
+        private final Supplier<String> contents;
+        private final JsonElement tree;
+        private final Runnable onFailure;
+        private long firstSaved = System.nanoTime();
+
+        private PendingWrite(Supplier<String> contents, JsonElement tree, Runnable onFailure) {
+            this.contents = contents;
+            this.tree = tree;
+            this.onFailure = onFailure;
+        }
+    }
+}
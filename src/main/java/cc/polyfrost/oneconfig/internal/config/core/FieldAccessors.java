@@ -0,0 +1,116 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.internal.config.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Reads boolean, float and int option fields without boxing their values.
+ * <p>
+ * The accessors use method handles for the field, which also unbox fields of a wrapper type like {@link Boolean}, and
+ * widen int fields for {@link #forFloat(Field)}. When no method handle can be made for a field they fall back to the
+ * field itself.
+ */
+public final class FieldAccessors {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private FieldAccessors() {
+    }
+
+    public interface BooleanAccessor {
+        boolean get(Object parent) throws IllegalAccessException;
+    }
+
+    public interface FloatAccessor {
+        float get(Object parent) throws IllegalAccessException;
+    }
+
+    public interface IntAccessor {
+        int get(Object parent) throws IllegalAccessException;
+    }
+
+    public static BooleanAccessor forBoolean(Field field) {
+        MethodHandle getter = getter(field, boolean.class);
+        if (getter == null) return parent -> (boolean) field.get(parent);
+        return parent -> {
+            try {
+                return (boolean) getter.invokeExact(parent);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        };
+    }
+
+    public static FloatAccessor forFloat(Field field) {
+        MethodHandle getter = getter(field, float.class);
+        if (getter == null) return parent -> ((Number) field.get(parent)).floatValue();
+        return parent -> {
+            try {
+                return (float) getter.invokeExact(parent);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        };
+    }
+
+    public static IntAccessor forInt(Field field) {
+        MethodHandle getter = getter(field, int.class);
+        if (getter == null) return parent -> (int) field.get(parent);
+        return parent -> {
+            try {
+                return (int) getter.invokeExact(parent);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        };
+    }
+
+    /**
+     * @return a handle of type (Object)type reading the field, or null if the field can't be read as that type
+     */
+    private static MethodHandle getter(Field field, Class<?> type) {
+        try {
+            field.setAccessible(true);
+            MethodHandle getter = LOOKUP.unreflectGetter(field);
+            if (Modifier.isStatic(field.getModifiers())) getter = MethodHandles.dropArguments(getter, 0, Object.class);
+            return getter.asType(MethodType.methodType(type, Object.class));
+        } catch (IllegalAccessException | SecurityException | WrongMethodTypeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.internal.config.core;
+
+import cc.polyfrost.oneconfig.config.Config;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+
+/**
+ * Finds the code generated for a class by OneConfig's optional annotation processor, which replaces the reflection
+ * OneConfig would otherwise do for that class.
+ * <p>
+ * For a class {@code a.b.ExampleConfig} the processor generates {@code a.b.ExampleConfig_OneConfigOptions}, a table of
+ * its option fields and buttons which {@link ConfigClassMetadata} reads instead of scanning the annotations of every
+ * field and method, and for {@link Config} subclasses {@code a.b.ExampleConfig_OneConfigAdapter}, a Gson
+ * {@link TypeAdapter} which reads and writes the fields of the config directly. Classes without generated code keep
+ * using reflection. The generated code can be ignored with {@code -Doneconfig.generatedConfigCode=false}.
+ */
+public final class GeneratedConfigCode {
+    public static final String OPTIONS_SUFFIX = "_OneConfigOptions";
+    public static final String ADAPTER_SUFFIX = "_OneConfigAdapter";
+    private static final Logger LOGGER = LogManager.getLogger("OneConfig Generated Code");
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("oneconfig.generatedConfigCode", "true"));
+
+    private GeneratedConfigCode() {
+    }
+
+    /**
+     * @param clazz The class to get the option table of
+     * @param name  The name of the table, {@code FIELDS} or {@code BUTTONS}
+     * @return The table generated for the class, or null if there is none
+     */
+    @Nullable
+    static String[] getOptionTable(Class<?> clazz, String name) {
+        Class<?> options = getGeneratedClass(clazz, OPTIONS_SUFFIX);
+        if (options == null) return null;
+        try {
+            Field field = options.getField(name);
+            return (String[]) field.get(null);
+        } catch (NoSuchFieldException e) {
+            // the table is left out when it can't describe the class
+            return null;
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            LOGGER.warn("Ignoring invalid generated options of " + clazz.getName(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Register the generated adapter of a config with a builder, if it has one. Configs which override
+     * {@link Config#addGsonOptions(GsonBuilder)} keep using reflection, since the generated adapter can't know which
+     * options they change.
+     *
+     * @param builder         The builder of the Gson instance used by the config
+     * @param config          The config, which is read into when loading
+     * @param profileSpecific If the Gson instance handles the profile specific fields, or the other ones
+     * @return The builder
+     */
+    public static GsonBuilder registerAdapter(GsonBuilder builder, Config config, boolean profileSpecific) {
+        Class<?> clazz = config.getClass();
+        if (overridesGsonOptions(clazz)) return builder;
+        Class<?> adapter = getGeneratedClass(clazz, ADAPTER_SUFFIX);
+        if (adapter == null) return builder;
+        try {
+            Constructor<?> constructor = adapter.getConstructor(Gson.class, clazz, boolean.class);
+            return builder.registerTypeAdapterFactory(new AdapterFactory(clazz, constructor, config, profileSpecific));
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("Ignoring invalid generated adapter of " + clazz.getName(), e);
+            return builder;
+        }
+    }
+
+    @Nullable
+    private static Class<?> getGeneratedClass(Class<?> clazz, String suffix) {
+        if (!ENABLED || clazz.getClassLoader() == null) return null;
+        try {
+            return Class.forName(clazz.getName().replace('$', '_') + suffix, true, clazz.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (LinkageError e) {
+            LOGGER.warn("Failed to load the generated code of " + clazz.getName(), e);
+            return null;
+        }
+    }
+
+    private static boolean overridesGsonOptions(Class<?> clazz) {
+        for (; clazz != Config.class; clazz = clazz.getSuperclass()) {
+            try {
+                clazz.getDeclaredMethod("addGsonOptions", GsonBuilder.class);
+                return true;
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        return false;
+    }
+
+    private static class AdapterFactory implements TypeAdapterFactory {
+        private final Class<?> clazz;
+        private final Constructor<?> constructor;
+        private final Config config;
+        private final boolean profileSpecific;
+
+        private AdapterFactory(Class<?> clazz, Constructor<?> constructor, Config config, boolean profileSpecific) {
+            this.clazz = clazz;
+            this.constructor = constructor;
+            this.config = config;
+            this.profileSpecific = profileSpecific;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() != clazz) return null;
+            try {
+                return (TypeAdapter<T>) constructor.newInstance(gson, config, profileSpecific);
+            } catch (ReflectiveOperationException e) {
+                LOGGER.warn("Failed to create the generated adapter of " + clazz.getName(), e);
+                return null;
+            }
+        }
+    }
+}
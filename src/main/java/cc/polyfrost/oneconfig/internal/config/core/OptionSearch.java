@@ -0,0 +1,223 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.internal.config.core;
+
+import cc.polyfrost.oneconfig.config.data.Mod;
+import cc.polyfrost.oneconfig.config.elements.BasicOption;
+import cc.polyfrost.oneconfig.config.elements.OptionCategory;
+import cc.polyfrost.oneconfig.config.elements.OptionPage;
+import cc.polyfrost.oneconfig.config.elements.OptionSubcategory;
+import cc.polyfrost.oneconfig.gui.OneConfigGui;
+import cc.polyfrost.oneconfig.gui.elements.config.ConfigPageButton;
+import cc.polyfrost.oneconfig.gui.pages.ModConfigPage;
+import cc.polyfrost.oneconfig.utils.SearchIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Searches the options of all mods. The options of a mod are indexed on a worker thread when its config is
+ * initialized, and queries are also answered on that thread, so searching never blocks rendering.
+ * <p>
+ * Results are ranked by how well they match (exact, then prefix, then fuzzy) and then by the field that matched
+ * (name, then category or subcategory, then description).
+ */
+public class OptionSearch {
+    private static final int MAX_RESULTS = 50;
+    private static final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OneConfig Option Search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // only used on the worker thread
+    private static final ArrayList<Result> entries = new ArrayList<>();
+    private static final SearchIndex index = new SearchIndex();
+    private static volatile String latestQuery = null;
+    private static volatile List<Result> results = Collections.emptyList();
+
+    /**
+     * Index the options of a mod in the background. Called when its config is initialized.
+     *
+     * @param mod The mod
+     */
+    public static void index(Mod mod) {
+        worker.execute(() -> {
+            indexPage(mod, mod.defaultPage);
+            String query = latestQuery;
+            if (query != null) update(query);
+        });
+    }
+
+    /**
+     * Search the options of all mods. The search runs in the background, so until it is done the results of the
+     * previous search are returned.
+     *
+     * @param query The search query
+     * @return The best matching options, best first
+     */
+    public static List<Result> search(String query) {
+        String normalized = query.trim().toLowerCase(Locale.ENGLISH);
+        if (normalized.isEmpty()) return Collections.emptyList();
+        if (!normalized.equals(latestQuery)) {
+            latestQuery = normalized;
+            worker.execute(() -> update(normalized));
+        }
+        return results;
+    }
+
+    private static void indexPage(Mod mod, OptionPage page) {
+        for (Map.Entry<String, OptionCategory> category : page.categories.entrySet()) {
+            for (OptionSubcategory subcategory : category.getValue().subcategories) {
+                for (ConfigPageButton button : subcategory.topButtons) indexOption(mod, page, button);
+                for (BasicOption option : subcategory.options) indexOption(mod, page, option);
+                for (ConfigPageButton button : subcategory.bottomButtons) indexOption(mod, page, button);
+            }
+        }
+    }
+
+    private static void indexOption(Mod mod, OptionPage page, BasicOption option) {
+        if (option.name == null || option.name.isEmpty()) return;
+        entries.add(new Result(mod, page, option));
+        if (option instanceof ConfigPageButton && ((ConfigPageButton) option).page instanceof ModConfigPage) {
+            indexPage(mod, ((ModConfigPage) ((ConfigPageButton) option).page).getPage());
+        }
+    }
+
+    private static void update(String query) {
+        // skip queries which were already replaced while waiting
+        if (!query.equals(latestQuery)) return;
+        int size = entries.size();
+        long[] matches = new long[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int score = entries.get(i).getScore(query);
+            // sort by score, then by the order the options were indexed in
+            if (score >= 0) matches[count++] = ((long) (Integer.MAX_VALUE - score) << 32) | i;
+        }
+        Arrays.sort(matches, 0, count);
+        ArrayList<Result> list = new ArrayList<>(Math.min(count, MAX_RESULTS));
+        for (int i = 0; i < count && i < MAX_RESULTS; i++) {
+            list.add(entries.get((int) matches[i]));
+        }
+        results = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * An option found by the search
+     */
+    public static class Result {
+        private static final int EXACT = 2, PREFIX = 1, FUZZY = 0;
+        private static final int NAME = 2, CATEGORY = 1, DESCRIPTION = 0;
+        private final Mod mod;
+        private final OptionPage page;
+        private final BasicOption option;
+        private final String path;
+        private final String name, category, subcategory, description;
+        private final int nameId, categoryId, subcategoryId, descriptionId;
+
+        private Result(Mod mod, OptionPage page, BasicOption option) {
+            this.mod = mod;
+            this.page = page;
+            this.option = option;
+            StringBuilder path = new StringBuilder(mod.name);
+            if (page != mod.defaultPage) path.append(" > ").append(page.name);
+            if (option.category != null && !option.category.isEmpty()) path.append(" > ").append(option.category);
+            if (option.subcategory != null && !option.subcategory.isEmpty()) path.append(" > ").append(option.subcategory);
+            this.path = path.toString();
+            name = normalize(option.name);
+            category = normalize(option.category);
+            subcategory = normalize(option.subcategory);
+            description = normalize(option.description);
+            nameId = index.add(name);
+            categoryId = category.isEmpty() ? -1 : index.add(category);
+            subcategoryId = subcategory.isEmpty() ? -1 : index.add(subcategory);
+            descriptionId = description.isEmpty() ? -1 : index.add(description);
+        }
+
+        /**
+         * @return The score of the option for the query, or -1 if it doesn't match
+         */
+        private int getScore(String query) {
+            int score = getScore(nameId, name, query, NAME);
+            score = Math.max(score, getScore(categoryId, category, query, CATEGORY));
+            score = Math.max(score, getScore(subcategoryId, subcategory, query, CATEGORY));
+            return Math.max(score, getScore(descriptionId, description, query, DESCRIPTION));
+        }
+
+        private static int getScore(int id, String text, String query, int field) {
+            if (id == -1 || !index.isSimilar(id, query)) return -1;
+            int match = text.equals(query) ? EXACT : isWordPrefix(text, query) ? PREFIX : FUZZY;
+            return match * 3 + field;
+        }
+
+        private static boolean isWordPrefix(String text, String query) {
+            for (int i = text.indexOf(query); i != -1; i = text.indexOf(query, i + 1)) {
+                if (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1))) return true;
+            }
+            return false;
+        }
+
+        private static String normalize(String text) {
+            return text == null ? "" : text.trim().toLowerCase(Locale.ENGLISH);
+        }
+
+        /**
+         * Open the page of the option in the OneConfig GUI and scroll to it.
+         */
+        public void open() {
+            if (OneConfigGui.INSTANCE == null) return;
+            ModConfigPage configPage = new ModConfigPage(page);
+            OneConfigGui.INSTANCE.openPage(configPage);
+            configPage.scrollToOption(option);
+        }
+
+        public Mod getMod() {
+            return mod;
+        }
+
+        public OptionPage getPage() {
+            return page;
+        }
+
+        public BasicOption getOption() {
+            return option;
+        }
+
+        /**
+         * @return Where the option is, for example "Mod > Category > Subcategory"
+         */
+        public String getPath() {
+            return path;
+        }
+    }
+}
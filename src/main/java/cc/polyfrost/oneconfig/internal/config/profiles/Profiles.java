@@ -28,6 +28,7 @@ package cc.polyfrost.oneconfig.internal.config.profiles;
 
 import cc.polyfrost.oneconfig.internal.config.OneConfigConfig;
 import cc.polyfrost.oneconfig.internal.config.core.ConfigCore;
+import cc.polyfrost.oneconfig.internal.config.core.ConfigWriter;
 import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -105,6 +106,8 @@ public class Profiles {
     public static void renameProfile(String name, String newName) {
         try {
             File newFile = new File(profileDir, newName);
+            // a write still pending for the old directory would create it again after it was moved
+            ConfigWriter.flush();
             FileUtils.moveDirectory(getProfileDir(name), newFile);
             if (OneConfigConfig.currentProfile.equals(name)) OneConfigConfig.currentProfile = newName;
             profiles.remove(name);
@@ -123,6 +126,7 @@ public class Profiles {
             loadProfile(profiles.stream().filter(entry -> !entry.equals(name)).findFirst().get());
         }
         try {
+            ConfigWriter.flush();
             FileUtils.deleteDirectory(getProfileDir(name));
             profiles.remove(name);
         } catch (IOException e) {
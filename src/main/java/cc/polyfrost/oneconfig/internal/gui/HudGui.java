@@ -29,11 +29,14 @@ package cc.polyfrost.oneconfig.internal.gui;
 import cc.polyfrost.oneconfig.gui.GuiPause;
 import cc.polyfrost.oneconfig.gui.OneConfigGui;
 import cc.polyfrost.oneconfig.hud.Hud;
+import cc.polyfrost.oneconfig.hud.HudRenderContext;
 import cc.polyfrost.oneconfig.hud.Position;
 import cc.polyfrost.oneconfig.internal.config.core.ConfigCore;
 import cc.polyfrost.oneconfig.internal.hud.HudCore;
 import cc.polyfrost.oneconfig.internal.hud.utils.GrabOffset;
+import cc.polyfrost.oneconfig.internal.hud.utils.HudSpatialIndex;
 import cc.polyfrost.oneconfig.internal.hud.utils.SnappingLine;
+import cc.polyfrost.oneconfig.internal.hud.utils.SnappingLines;
 import cc.polyfrost.oneconfig.libs.universal.UGraphics;
 import cc.polyfrost.oneconfig.libs.universal.UKeyboard;
 import cc.polyfrost.oneconfig.libs.universal.UMatrixStack;
@@ -50,6 +53,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -57,7 +61,29 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 public class HudGui extends UScreen implements GuiPause {
     private static final int SNAPPING_DISTANCE = 10;
+    private static final int OVERLAY_EDITING = 1;
+    private static final int OVERLAY_LOCKED = 2;
+    private static final int EDITING_COLOR = ColorUtils.getColor(0, 128, 128, 60);
+    private static final int LOCKED_COLOR = ColorUtils.getColor(238, 36, 36, 60);
+    private static final int OUTLINE_COLOR = ColorUtils.getColor(255, 255, 255);
+    private static final int HANDLE_COLOR = ColorUtils.getColor(0, 128, 128, 200);
+    private static final int SELECTION_COLOR = ColorUtils.getColor(0, 0, 255, 100);
     private final HashMap<Hud, GrabOffset> editingHuds = new HashMap<>();
+    private final HudSpatialIndex hudIndex = new HudSpatialIndex();
+    private final SnappingLines xSnappingLines = new SnappingLines();
+    private final SnappingLines ySnappingLines = new SnappingLines();
+    /**
+     * The snapping lines are built from the other HUDs when a drag or scale starts, and kept until the next one, so
+     * HUDs which change size every frame don't rebuild them every frame.
+     */
+    private boolean snappingLinesDirty = true;
+    private float snappingScreenWidth;
+    private float snappingScreenHeight;
+    private final ArrayList<SnappingLine> xSnappingGuides = new ArrayList<>();
+    private final ArrayList<SnappingLine> ySnappingGuides = new ArrayList<>();
+    private float[] overlayBounds = new float[64];
+    private int[] overlayFlags = new int[16];
+    private int overlayCount;
     private boolean isDragging;
     private boolean isSelecting;
     private float selectX;
@@ -73,52 +99,104 @@ public class HudGui extends UScreen implements GuiPause {
         HudCore.editing = true;
         UKeyboard.allowRepeatEvents(true);
         super.initScreen(width, height);
+        hudIndex.beginUpdate();
+        for (Hud hud : HudCore.huds.values()) {
+            if (hud.isEnabled()) hudIndex.update(hud);
+        }
+        hudIndex.endUpdate();
+        snappingLinesDirty = true;
     }
 
     @Override
     public void onDrawScreen(@NotNull UMatrixStack matrixStack, int mouseX, int mouseY, float partialTicks) {
-        final NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
-
-        int lineWidth = Math.max(1, Math.round(Math.min(UResolution.getWindowWidth() / 1920f, UResolution.getWindowHeight() / 1080f)));
+        xSnappingGuides.clear();
+        ySnappingGuides.clear();
         if (isDragging) {
-            nanoVGHelper.setupAndDraw(vg -> setHudPositions(vg, mouseX, mouseY, true, true, lineWidth));
+            setHudPositions(mouseX, mouseY, true, true);
         } else if (isSelecting) {
             getHudsInRegion(selectX, selectY, mouseX, mouseY);
         } else if (isScaling && editingHuds.size() == 1) {
-            nanoVGHelper.setupAndDraw(vg -> {
-                Hud hud = (Hud) editingHuds.keySet().toArray()[0];
-                Position position = hud.position;
-                float scaleX = getXSnapping(vg, lineWidth, mouseX, position.getWidth(), false);
-                hud.setScale(MathUtils.clamp((scaleX - position.getX()) / (position.getWidth() / hud.getScale()), 0.3f, 10f), true);
-            });
+            Hud hud = (Hud) editingHuds.keySet().toArray()[0];
+            Position position = hud.position;
+            float scaleX = getXSnapping(mouseX, position.getWidth(), false);
+            hud.setScale(MathUtils.clamp((scaleX - position.getX()) / (position.getWidth() / hud.getScale()), 0.3f, 10f), true);
         }
 
+        overlayCount = 0;
+        HudCore.setRenderContext(HudRenderContext.create(partialTicks));
+        UGraphics.enableAlpha();
+        UGraphics.enableBlend();
+        hudIndex.beginUpdate();
+        try {
+            for (Hud hud : HudCore.huds.values()) {
+                if (!hud.isEnabled()) continue;
+                hud.drawAll(matrixStack, true);
+                hudIndex.update(hud);
+                addOverlay(hud.position, editingHuds.containsKey(hud), hud.isLocked());
+            }
+        } finally {
+            HudCore.setRenderContext(null);
+        }
+        hudIndex.endUpdate();
+
+        int lineWidth = Math.max(1, Math.round(Math.min(UResolution.getWindowWidth() / 1920f, UResolution.getWindowHeight() / 1080f)));
+        NanoVGHelper.INSTANCE.setupAndDraw(vg -> drawOverlay(vg, mouseX, mouseY, lineWidth));
+    }
+
+    private void addOverlay(Position position, boolean editing, boolean locked) {
+        if (overlayCount == overlayFlags.length) {
+            overlayBounds = Arrays.copyOf(overlayBounds, overlayCount * 8);
+            overlayFlags = Arrays.copyOf(overlayFlags, overlayCount * 2);
+        }
+        float x = position.getX();
+        float y = position.getY();
+        int i = overlayCount * 4;
+        overlayBounds[i] = x;
+        overlayBounds[i + 1] = y;
+        overlayBounds[i + 2] = x + position.getWidth();
+        overlayBounds[i + 3] = y + position.getHeight();
+        overlayFlags[overlayCount++] = (editing ? OVERLAY_EDITING : 0) | (locked ? OVERLAY_LOCKED : 0);
+    }
+
+    /**
+     * Draws all editor decorations in a single NanoVG frame, in window coordinates.
+     */
+    private void drawOverlay(long vg, int mouseX, int mouseY, int lineWidth) {
+        final NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
         float scaleFactor = (float) UResolution.getScaleFactor();
-        for (Hud hud : HudCore.huds.values()) {
-            if (!hud.isEnabled()) continue;
-            Position position = hud.position;
-            UGraphics.enableAlpha();
-            UGraphics.enableBlend();
-            hud.drawAll(matrixStack, true);
-            if (editingHuds.containsKey(hud)) {
-                nanoVGHelper.setupAndDraw(true, vg -> nanoVGHelper.drawRect(vg, position.getX(), position.getY(), position.getWidth(), position.getHeight(), ColorUtils.getColor(0, 128, 128, 60)));
+        float offset = lineWidth / 2f;
+        boolean single = editingHuds.size() == 1;
+        for (int hud = 0; hud < overlayCount; hud++) {
+            int i = hud * 4;
+            float x = overlayBounds[i] * scaleFactor;
+            float y = overlayBounds[i + 1] * scaleFactor;
+            float right = overlayBounds[i + 2] * scaleFactor;
+            float bottom = overlayBounds[i + 3] * scaleFactor;
+            int flags = overlayFlags[hud];
+            if ((flags & OVERLAY_EDITING) != 0) {
+                nanoVGHelper.drawRect(vg, x, y, right - x, bottom - y, EDITING_COLOR);
             }
-            if (hud.isLocked()) {
-                nanoVGHelper.setupAndDraw(true, vg -> nanoVGHelper.drawRect(vg, position.getX(), position.getY(), position.getWidth(), position.getHeight(), ColorUtils.getColor(238, 36, 36, 60)));
+            if ((flags & OVERLAY_LOCKED) != 0) {
+                nanoVGHelper.drawRect(vg, x, y, right - x, bottom - y, LOCKED_COLOR);
             }
-            nanoVGHelper.setupAndDraw(vg -> {
-                nanoVGHelper.drawLine(vg, position.getX() * scaleFactor - lineWidth / 2f, position.getY() * scaleFactor - lineWidth / 2f, position.getRightX() * scaleFactor + lineWidth / 2f, position.getY() * scaleFactor - lineWidth / 2f, lineWidth, ColorUtils.getColor(255, 255, 255));
-                nanoVGHelper.drawLine(vg, position.getX() * scaleFactor - lineWidth / 2f, position.getBottomY() * scaleFactor + lineWidth / 2f, position.getRightX() * scaleFactor + lineWidth / 2f, position.getBottomY() * scaleFactor + lineWidth / 2f, lineWidth, ColorUtils.getColor(255, 255, 255));
-                nanoVGHelper.drawLine(vg, position.getX() * scaleFactor - lineWidth / 2f, position.getY() * scaleFactor - lineWidth / 2f, position.getX() * scaleFactor - lineWidth / 2f, position.getBottomY() * scaleFactor + lineWidth / 2f, lineWidth, ColorUtils.getColor(255, 255, 255));
-                nanoVGHelper.drawLine(vg, position.getRightX() * scaleFactor + lineWidth / 2f, position.getY() * scaleFactor - lineWidth / 2f, position.getRightX() * scaleFactor + lineWidth / 2f, position.getBottomY() * scaleFactor + lineWidth / 2f, lineWidth, ColorUtils.getColor(255, 255, 255));
-            });
-            if (editingHuds.containsKey(hud) && editingHuds.size() == 1) {
-                nanoVGHelper.setupAndDraw(true, vg -> nanoVGHelper.drawRect(vg, position.getRightX() - 4, position.getBottomY() - 4, 8, 8, ColorUtils.getColor(0, 128, 128, 200)));
+            nanoVGHelper.drawLine(vg, x - offset, y - offset, right + offset, y - offset, lineWidth, OUTLINE_COLOR);
+            nanoVGHelper.drawLine(vg, x - offset, bottom + offset, right + offset, bottom + offset, lineWidth, OUTLINE_COLOR);
+            nanoVGHelper.drawLine(vg, x - offset, y - offset, x - offset, bottom + offset, lineWidth, OUTLINE_COLOR);
+            nanoVGHelper.drawLine(vg, right + offset, y - offset, right + offset, bottom + offset, lineWidth, OUTLINE_COLOR);
+            if (single && (flags & OVERLAY_EDITING) != 0) {
+                nanoVGHelper.drawRect(vg, right - 4 * scaleFactor, bottom - 4 * scaleFactor, 8 * scaleFactor, 8 * scaleFactor, HANDLE_COLOR);
             }
         }
 
+        for (SnappingLine snappingLine : xSnappingGuides) {
+            snappingLine.drawLine(vg, lineWidth, true);
+        }
+        for (SnappingLine snappingLine : ySnappingGuides) {
+            snappingLine.drawLine(vg, lineWidth, false);
+        }
+
         if (isSelecting) {
-            nanoVGHelper.setupAndDraw(true, vg -> nanoVGHelper.drawRect(vg, selectX, selectY, mouseX - selectX, mouseY - selectY, ColorUtils.getColor(0, 0, 255, 100)));
+            nanoVGHelper.drawRect(vg, selectX * scaleFactor, selectY * scaleFactor, (mouseX - selectX) * scaleFactor, (mouseY - selectY) * scaleFactor, SELECTION_COLOR);
         }
     }
 
@@ -129,6 +207,7 @@ public class HudGui extends UScreen implements GuiPause {
         isDragging = false;
         isSelecting = false;
         isScaling = false;
+        snappingLinesDirty = true;
         if (editingHuds.size() == 1) {
             Position position = ((Hud) editingHuds.keySet().toArray()[0]).position;
             if (mouseX >= position.getRightX() - 7 && mouseX <= position.getRightX() + 7 && mouseY >= position.getBottomY() - 7 && mouseY <= position.getBottomY() + 7) {
@@ -136,8 +215,8 @@ public class HudGui extends UScreen implements GuiPause {
                 return;
             }
         }
-        for (Hud hud : HudCore.huds.values()) {
-            if (!hud.isEnabled() || !mouseClickedHud(hud, (float) mouseX, (float) mouseY) || hud.isLocked()) continue;
+        Hud hud = hudIndex.getHudAt((float) mouseX, (float) mouseY, h -> h.isEnabled() && !h.isLocked());
+        if (hud != null) {
             if (!editingHuds.containsKey(hud)) {
                 if (!UKeyboard.isCtrlKeyDown()) editingHuds.clear();
                 editingHuds.put(hud, new GrabOffset());
@@ -203,16 +282,13 @@ public class HudGui extends UScreen implements GuiPause {
         }
 
         editingHuds.clear();
-        for (Hud hud : HudCore.huds.values()) {
-            if (!hud.isEnabled() || hud.isLocked()) continue;
-            Position pos = hud.position;
-            if ((x1 <= pos.getX() && x2 >= pos.getX() || x1 <= pos.getRightX() && x2 >= pos.getRightX())
-                    && (y1 <= pos.getY() && y2 >= pos.getY() || y1 <= pos.getBottomY() && y2 >= pos.getBottomY()))
-                editingHuds.put(hud, new GrabOffset());
+        snappingLinesDirty = true;
+        for (Hud hud : hudIndex.getHudsInRegion(x1, y1, x2, y2, h -> h.isEnabled() && !h.isLocked())) {
+            editingHuds.put(hud, new GrabOffset());
         }
     }
 
-    private void setHudPositions(long vg, float mouseX, float mouseY, boolean snap, boolean locked, int lineWidth) {
+    private void setHudPositions(float mouseX, float mouseY, boolean snap, boolean locked) {
         for (Hud hud : editingHuds.keySet()) {
             GrabOffset grabOffset = editingHuds.get(hud);
             Position position = hud.position;
@@ -220,8 +296,8 @@ public class HudGui extends UScreen implements GuiPause {
             float y = mouseY - grabOffset.getY();
 
             if (editingHuds.size() == 1 && snap) {
-                x = getXSnapping(vg, lineWidth, x, position.getWidth(), true);
-                y = getYSnapping(vg, lineWidth, y, position.getHeight(), true);
+                x = getXSnapping(x, position.getWidth(), true);
+                y = getYSnapping(y, position.getHeight(), true);
             }
 
             if (locked) {
@@ -238,77 +314,65 @@ public class HudGui extends UScreen implements GuiPause {
     }
 
     private void setHudPositions(float mouseX, float mouseY, boolean locked) {
-        setHudPositions(0, mouseX, mouseY, false, locked, 0);
+        setHudPositions(mouseX, mouseY, false, locked);
     }
 
-    private boolean mouseClickedHud(Hud hud, float mouseX, float mouseY) {
-        Position position = hud.position;
-        return mouseX >= position.getX() && mouseX <= position.getRightX() &&
-                mouseY >= position.getY() && mouseY <= position.getBottomY();
-    }
-
-    private float getXSnapping(long vg, float lineWidth, float x, float width, boolean multipleSides) {
-        ArrayList<Float> lines = getXSnappingLines();
-        ArrayList<SnappingLine> snappingLines = new ArrayList<>();
-        float closest = (float) (SNAPPING_DISTANCE / UResolution.getScaleFactor());
-        for (Float line : lines) {
-            SnappingLine snappingLine = new SnappingLine(line, x, width, multipleSides);
-            if (Math.round(snappingLine.getDistance()) == Math.round(closest)) snappingLines.add(snappingLine);
-            else if (snappingLine.getDistance() < closest) {
-                closest = snappingLine.getDistance();
-                snappingLines.clear();
-                snappingLines.add(snappingLine);
-            }
-        }
-        if (snappingLines.isEmpty()) return x;
-        for (SnappingLine snappingLine : snappingLines) {
-            snappingLine.drawLine(vg, lineWidth, true);
-        }
-        return snappingLines.get(0).getPosition();
+    private float getXSnapping(float x, float width, boolean multipleSides) {
+        updateSnappingLines();
+        return getSnapping(xSnappingLines, xSnappingGuides, x, width, multipleSides);
     }
 
-    private ArrayList<Float> getXSnappingLines() {
-        ArrayList<Float> lines = new ArrayList<>();
-        lines.add(UResolution.getScaledWidth() / 2f);
-        for (Hud hud : HudCore.huds.values()) {
-            if (!hud.isEnabled() || editingHuds.containsKey(hud)) continue;
-            lines.add(hud.position.getX());
-            lines.add(hud.position.getCenterX());
-            lines.add(hud.position.getRightX());
-        }
-        return lines;
+    private float getYSnapping(float y, float height, boolean multipleSides) {
+        updateSnappingLines();
+        return getSnapping(ySnappingLines, ySnappingGuides, y, height, multipleSides);
     }
 
-    private float getYSnapping(long vg, float lineWidth, float y, float height, boolean multipleSides) {
-        ArrayList<Float> lines = getYSnappingLines();
-        ArrayList<SnappingLine> snappingLines = new ArrayList<>();
+    private float getSnapping(SnappingLines lines, ArrayList<SnappingLine> snappingLines, float left, float size, boolean multipleSides) {
         float closest = (float) (SNAPPING_DISTANCE / UResolution.getScaleFactor());
-        for (Float line : lines) {
-            SnappingLine snappingLine = new SnappingLine(line, y, height, multipleSides);
-            if (Math.round(snappingLine.getDistance()) == Math.round(closest)) snappingLines.add(snappingLine);
-            else if (snappingLine.getDistance() < closest) {
-                closest = snappingLine.getDistance();
-                snappingLines.clear();
-                snappingLines.add(snappingLine);
+        // Lines further away than this from every side can never be picked, so they are skipped with a binary search
+        float range = closest + 1f;
+        int next = 0;
+        for (int side = 0; side < (multipleSides ? 3 : 1); side++) {
+            float edge = left + size * side / 2f;
+            int i = Math.max(next, lines.lowerBound(edge - range));
+            for (; i < lines.size() && lines.get(i) <= edge + range; i++) {
+                SnappingLine snappingLine = new SnappingLine(lines.get(i), left, size, multipleSides);
+                if (Math.round(snappingLine.getDistance()) == Math.round(closest)) snappingLines.add(snappingLine);
+                else if (snappingLine.getDistance() < closest) {
+                    closest = snappingLine.getDistance();
+                    snappingLines.clear();
+                    snappingLines.add(snappingLine);
+                }
             }
+            next = Math.max(next, i);
         }
-        if (snappingLines.isEmpty()) return y;
-        for (SnappingLine snappingLine : snappingLines) {
-            snappingLine.drawLine(vg, lineWidth, false);
-        }
+        if (snappingLines.isEmpty()) return left;
         return snappingLines.get(0).getPosition();
     }
 
-    private ArrayList<Float> getYSnappingLines() {
-        ArrayList<Float> lines = new ArrayList<>();
-        lines.add(UResolution.getScaledHeight() / 2f);
-        for (Hud hud : HudCore.huds.values()) {
+    private void updateSnappingLines() {
+        float screenWidth = UResolution.getScaledWidth();
+        float screenHeight = UResolution.getScaledHeight();
+        if (!snappingLinesDirty && screenWidth == snappingScreenWidth && screenHeight == snappingScreenHeight) return;
+        snappingLinesDirty = false;
+        snappingScreenWidth = screenWidth;
+        snappingScreenHeight = screenHeight;
+        xSnappingLines.clear();
+        ySnappingLines.clear();
+        xSnappingLines.add(screenWidth / 2f);
+        ySnappingLines.add(screenHeight / 2f);
+        for (Hud hud : hudIndex.getHuds()) {
             if (!hud.isEnabled() || editingHuds.containsKey(hud)) continue;
-            lines.add(hud.position.getY());
-            lines.add(hud.position.getCenterY());
-            lines.add(hud.position.getBottomY());
+            Position position = hud.position;
+            xSnappingLines.add(position.getX());
+            xSnappingLines.add(position.getCenterX());
+            xSnappingLines.add(position.getRightX());
+            ySnappingLines.add(position.getY());
+            ySnappingLines.add(position.getCenterY());
+            ySnappingLines.add(position.getBottomY());
         }
-        return lines;
+        xSnappingLines.sort();
+        ySnappingLines.sort();
     }
 
     private String superSecretString = "";
@@ -30,8 +30,10 @@ import cc.polyfrost.oneconfig.config.elements.BasicOption;
 import cc.polyfrost.oneconfig.events.event.HudRenderEvent;
 import cc.polyfrost.oneconfig.events.event.InitializationEvent;
 import cc.polyfrost.oneconfig.hud.Hud;
+import cc.polyfrost.oneconfig.hud.HudRenderContext;
 import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
 import cc.polyfrost.oneconfig.libs.universal.UGraphics;
+import cc.polyfrost.oneconfig.libs.universal.UMatrixStack;
 import cc.polyfrost.oneconfig.platform.Platform;
 
 import java.lang.reflect.Field;
@@ -44,22 +46,53 @@ public class HudCore {
     public static final ArrayList<BasicOption> hudOptions = new ArrayList<>();
     private static boolean isPatcher = false;
     public static boolean editing = false;
+    private static HudRenderContext renderContext;
 
     @Subscribe
     public void onRender(HudRenderEvent event) {
         if (editing) return;
-        for (Hud hud : huds.values()) {
-            if (!hud.isEnabled()) continue;
-            //#if FORGE==1 && MC<=11202
-            if (hud.isCachingIgnored()) continue;
-            //#endif
-            hud.deltaTicks = event.deltaTicks;
-            UGraphics.enableAlpha();
-            UGraphics.enableBlend();
-            hud.drawAll(event.matrices, false);
+        drawHuds(event.matrices, event.deltaTicks, false);
+    }
+
+    /**
+     * Draw all enabled HUDs which should be shown, with one render context shared by all of them.
+     *
+     * @param matrices       The UMatrixStack used for rendering in higher versions
+     * @param deltaTicks     How much time has elapsed since the last tick, in ticks
+     * @param cachingIgnored If only the HUDs ignored from HUD caching should be drawn, or only the others
+     */
+    public static void drawHuds(UMatrixStack matrices, float deltaTicks, boolean cachingIgnored) {
+        renderContext = HudRenderContext.create(deltaTicks);
+        UGraphics.enableAlpha();
+        UGraphics.enableBlend();
+        try {
+            for (Hud hud : huds.values()) {
+                if (!hud.isEnabled()) continue;
+                //#if FORGE==1 && MC<=11202
+                if (hud.isCachingIgnored() != cachingIgnored) continue;
+                //#endif
+                hud.deltaTicks = deltaTicks;
+                hud.drawAll(matrices, false);
+            }
+        } finally {
+            renderContext = null;
         }
     }
 
+    /**
+     * @return The render context of the HUDs which are being drawn, or null if no HUDs are being drawn
+     */
+    public static HudRenderContext getRenderContext() {
+        return renderContext;
+    }
+
+    /**
+     * @param context The render context of the HUDs which are drawn next, or null once they are drawn
+     */
+    public static void setRenderContext(HudRenderContext context) {
+        renderContext = context;
+    }
+
     @Subscribe
     public void onInit(InitializationEvent event) {
         isPatcher = Platform.getLoaderPlatform().isModLoaded("patcher");
@@ -0,0 +1,232 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.internal.hud.utils;
+
+import cc.polyfrost.oneconfig.hud.Hud;
+import cc.polyfrost.oneconfig.hud.Position;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Uniform grid over the bounds of HUDs, used by the HUD editor to hit-test and select HUDs
+ * without looping over every registered HUD.
+ * <p>
+ * Bounds are updated incrementally with {@link #update(Hud)}, which only touches the grid
+ * when the range of cells covered by a HUD changes.
+ */
+public class HudSpatialIndex {
+    private static final float CELL_SIZE = 64f;
+    private final HashMap<Long, ArrayList<Entry>> cells = new HashMap<>();
+    private final HashMap<Hud, Entry> entries = new HashMap<>();
+    private int nextOrder = 0;
+    private int generation = 0;
+    private int seen = 0;
+
+    /**
+     * Insert a HUD or update its bounds from its current {@link Position}.
+     *
+     * @param hud The HUD
+     * @return If the bounds of the HUD changed
+     */
+    public boolean update(Hud hud) {
+        Position position = hud.position;
+        float x = position.getX();
+        float y = position.getY();
+        float right = x + position.getWidth();
+        float bottom = y + position.getHeight();
+        Entry entry = entries.get(hud);
+        if (entry == null) {
+            entry = new Entry(hud, nextOrder++);
+            entries.put(hud, entry);
+        }
+        if (entry.generation != generation) {
+            entry.generation = generation;
+            seen++;
+        }
+        if (entry.indexed && entry.x == x && entry.y == y && entry.right == right && entry.bottom == bottom) {
+            return false;
+        }
+        entry.x = x;
+        entry.y = y;
+        entry.right = right;
+        entry.bottom = bottom;
+        int minCellX = cell(x);
+        int minCellY = cell(y);
+        int maxCellX = cell(right);
+        int maxCellY = cell(bottom);
+        if (entry.indexed && entry.minCellX == minCellX && entry.minCellY == minCellY && entry.maxCellX == maxCellX && entry.maxCellY == maxCellY) {
+            return true;
+        }
+        if (entry.indexed) removeFromCells(entry);
+        entry.minCellX = minCellX;
+        entry.minCellY = minCellY;
+        entry.maxCellX = maxCellX;
+        entry.maxCellY = maxCellY;
+        entry.indexed = true;
+        for (int cx = minCellX; cx <= maxCellX; cx++) {
+            for (int cy = minCellY; cy <= maxCellY; cy++) {
+                cells.computeIfAbsent(key(cx, cy), k -> new ArrayList<>(4)).add(entry);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove a HUD from the index.
+     *
+     * @param hud The HUD
+     */
+    public void remove(Hud hud) {
+        Entry entry = entries.remove(hud);
+        if (entry == null) return;
+        if (entry.indexed) removeFromCells(entry);
+    }
+
+    /**
+     * Start a new update pass. HUDs not passed to {@link #update(Hud)} before {@link #endUpdate()} is called are removed.
+     */
+    public void beginUpdate() {
+        generation++;
+        seen = 0;
+    }
+
+    /**
+     * Finish an update pass, removing every HUD that wasn't updated during it.
+     *
+     * @return If any HUD was removed
+     */
+    public boolean endUpdate() {
+        if (seen == entries.size()) return false;
+        Iterator<Map.Entry<Hud, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.generation == generation) continue;
+            if (entry.indexed) removeFromCells(entry);
+            iterator.remove();
+        }
+        return true;
+    }
+
+    /**
+     * Get the first HUD (in insertion order) containing the given point.
+     *
+     * @param x      The X coordinate
+     * @param y      The Y coordinate
+     * @param filter Filter HUDs have to match
+     * @return The HUD, or null if there is none
+     */
+    public Hud getHudAt(float x, float y, Predicate<Hud> filter) {
+        ArrayList<Entry> cell = cells.get(key(cell(x), cell(y)));
+        if (cell == null) return null;
+        Entry result = null;
+        for (Entry entry : cell) {
+            if (result != null && entry.order > result.order) continue;
+            if (x < entry.x || x > entry.right || y < entry.y || y > entry.bottom) continue;
+            if (!filter.test(entry.hud)) continue;
+            result = entry;
+        }
+        return result == null ? null : result.hud;
+    }
+
+    /**
+     * Get all HUDs which have a corner inside the given region.
+     *
+     * @param x1     The left X coordinate
+     * @param y1     The top Y coordinate
+     * @param x2     The right X coordinate
+     * @param y2     The bottom Y coordinate
+     * @param filter Filter HUDs have to match
+     * @return The HUDs in the region
+     */
+    public Set<Hud> getHudsInRegion(float x1, float y1, float x2, float y2, Predicate<Hud> filter) {
+        LinkedHashSet<Hud> result = new LinkedHashSet<>();
+        int maxCellX = cell(x2);
+        int maxCellY = cell(y2);
+        for (int cx = cell(x1); cx <= maxCellX; cx++) {
+            for (int cy = cell(y1); cy <= maxCellY; cy++) {
+                ArrayList<Entry> cell = cells.get(key(cx, cy));
+                if (cell == null) continue;
+                for (Entry entry : cell) {
+                    if (result.contains(entry.hud)) continue;
+                    if ((x1 <= entry.x && x2 >= entry.x || x1 <= entry.right && x2 >= entry.right)
+                            && (y1 <= entry.y && y2 >= entry.y || y1 <= entry.bottom && y2 >= entry.bottom)
+                            && filter.test(entry.hud))
+                        result.add(entry.hud);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return All HUDs in the index
+     */
+    public Set<Hud> getHuds() {
+        return entries.keySet();
+    }
+
+    private void removeFromCells(Entry entry) {
+        for (int cx = entry.minCellX; cx <= entry.maxCellX; cx++) {
+            for (int cy = entry.minCellY; cy <= entry.maxCellY; cy++) {
+                long key = key(cx, cy);
+                ArrayList<Entry> cell = cells.get(key);
+                if (cell == null) continue;
+                cell.remove(entry);
+                if (cell.isEmpty()) cells.remove(key);
+            }
+        }
+        entry.indexed = false;
+    }
+
+    private static int cell(float value) {
+        return (int) Math.floor(value / CELL_SIZE);
+    }
+
+    private static long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    private static class Entry {
+        private final Hud hud;
+        private final int order;
+        private float x, y, right, bottom;
+        private int minCellX, minCellY, maxCellX, maxCellY;
+        private int generation;
+        private boolean indexed;
+
+        private Entry(Hud hud, int order) {
+            this.hud = hud;
+            this.order = order;
+        }
+    }
+}
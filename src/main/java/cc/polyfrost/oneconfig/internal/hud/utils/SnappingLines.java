@@ -0,0 +1,77 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.internal.hud.utils;
+
+import java.util.Arrays;
+
+/**
+ * Sorted array of snapping line positions along one axis, searched with binary search
+ * so only the lines within snapping distance are looked at.
+ */
+public class SnappingLines {
+    private float[] lines = new float[16];
+    private int size = 0;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(float line) {
+        if (size == lines.length) lines = Arrays.copyOf(lines, size * 2);
+        lines[size++] = line;
+    }
+
+    /**
+     * Sort the lines, has to be called after adding lines and before searching them.
+     */
+    public void sort() {
+        Arrays.sort(lines, 0, size);
+    }
+
+    /**
+     * @param value The value to search for
+     * @return The index of the first line that is greater than or equal to the value
+     */
+    public int lowerBound(float value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lines[mid] < value) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    public float get(int index) {
+        return lines[index];
+    }
+
+    public int size() {
+        return size;
+    }
+}
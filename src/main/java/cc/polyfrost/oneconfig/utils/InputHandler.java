@@ -28,9 +28,9 @@ package cc.polyfrost.oneconfig.utils;
 
 import cc.polyfrost.oneconfig.platform.Platform;
 import cc.polyfrost.oneconfig.renderer.scissor.Scissor;
-import cc.polyfrost.oneconfig.utils.gui.GuiUtils;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * Various utility methods for input.
@@ -38,9 +38,16 @@ import java.util.ArrayList;
  * All values returned from this class are not scaled to Minecraft's GUI scale.
  * For scaled values, see {@link cc.polyfrost.oneconfig.libs.universal.UMouse}.
  * </p>
+ * <p>
+ * The mouse state is read from the {@link InputSnapshot} of the current frame, so every query in a frame sees
+ * the same input.
+ * </p>
  */
 public class InputHandler {
-    private final ArrayList<Scissor> blockScissors = new ArrayList<>();
+    private static final int BLOCK_CELL_SIZE = 64;
+    private final ArrayList<BlockedArea> blockedAreas = new ArrayList<>();
+    private final HashMap<Long, ArrayList<BlockedArea>> blockGrid = new HashMap<>();
+    private boolean blockGridDirty = false;
     private double scaleX = 1d;
     private double scaleY = 1d;
 
@@ -82,7 +89,7 @@ public class InputHandler {
     public boolean isAreaHovered(float x, float y, float width, float height, boolean ignoreBlock) {
         float mouseX = mouseX();
         float mouseY = mouseY();
-        return (ignoreBlock || blockScissors.size() == 0 || !shouldBlock(mouseX, mouseY)) && mouseX > x && mouseY > y && mouseX < x + width && mouseY < y + height;
+        return (ignoreBlock || blockedAreas.isEmpty() || !shouldBlock(mouseX, mouseY)) && mouseX > x && mouseY > y && mouseX < x + width && mouseY < y + height;
     }
 
     /**
@@ -130,7 +137,7 @@ public class InputHandler {
      * @return true if the mouse is clicked, false if not
      */
     public boolean isClicked(boolean ignoreBlock) {
-        return GuiUtils.wasMouseDown() && !Platform.getMousePlatform().isButtonDown(0) && (ignoreBlock || blockScissors.size() == 0 || !shouldBlock(mouseX(), mouseY()));
+        return InputSnapshot.getCurrent().wasReleased(0) && (ignoreBlock || blockedAreas.isEmpty() || !shouldBlock(mouseX(), mouseY()));
     }
 
     /**
@@ -148,7 +155,7 @@ public class InputHandler {
      * @return If the button is down
      */
     public boolean isMouseDown(int button) {
-        return Platform.getMousePlatform().isButtonDown(button);
+        return InputSnapshot.getCurrent().isButtonDown(button);
     }
 
     /**
@@ -168,7 +175,7 @@ public class InputHandler {
      * @return the current mouse X position
      */
     public float mouseX() {
-        return (float) (Platform.getMousePlatform().getMouseX() / scaleX);
+        return (float) (InputSnapshot.getCurrent().getMouseX() / scaleX);
     }
 
     /**
@@ -181,7 +188,7 @@ public class InputHandler {
      * @return the current mouse Y position
      */
     public float mouseY() {
-        return (float) (Platform.getMousePlatform().getMouseY() / scaleY);
+        return (float) (InputSnapshot.getCurrent().getMouseY() / scaleY);
     }
 
     /**
@@ -194,16 +201,20 @@ public class InputHandler {
      */
     public Scissor blockInputArea(float x, float y, float width, float height) {
         Scissor scissor = new Scissor(new Scissor(x, y, width, height));
-        blockScissors.add(scissor);
+        blockInputArea(scissor);
         return scissor;
     }
 
     /**
      * THIS SHOULD ONLY BE USED WITH SCISSORS FROM {@link #blockInputArea(float, float, float, float)}
+     * <p>
+     * The area is copied, changing the scissor afterwards doesn't change the blocked area.
+     *
      * @param inputScissor The scissor area
      */
     public void blockInputArea(Scissor inputScissor) {
-        blockScissors.add(inputScissor);
+        blockedAreas.add(new BlockedArea(inputScissor));
+        blockGridDirty = true;
     }
 
     /**
@@ -219,14 +230,21 @@ public class InputHandler {
      * @param scissor The scissor area
      */
     public void stopBlock(Scissor scissor) {
-        blockScissors.remove(scissor);
+        for (int i = 0; i < blockedAreas.size(); i++) {
+            if (blockedAreas.get(i).scissor == scissor) {
+                blockedAreas.remove(i);
+                blockGridDirty = true;
+                return;
+            }
+        }
     }
 
     /**
      * Clears all blocking areas
      */
     public void stopBlockingInput() {
-        blockScissors.clear();
+        blockedAreas.clear();
+        blockGridDirty = true;
     }
 
     /**
@@ -235,7 +253,7 @@ public class InputHandler {
      * @return true if clicks are blocked, false if not
      */
     public boolean isBlockingInput() {
-        return !blockScissors.isEmpty();
+        return !blockedAreas.isEmpty();
     }
 
     public double getDWheel(boolean ignoreBlock) {
@@ -255,9 +273,63 @@ public class InputHandler {
     }
 
     private boolean shouldBlock(float x, float y) {
-        for (Scissor block : blockScissors) {
-            if (block.isInScissor(x, y)) return true;
+        if (blockGridDirty) updateBlockGrid();
+        ArrayList<BlockedArea> cell = blockGrid.get(getCellKey(getCell(x), getCell(y)));
+        if (cell == null) return false;
+        for (int i = 0; i < cell.size(); i++) {
+            if (cell.get(i).isInScissor(x, y)) return true;
         }
         return false;
     }
+
+    /**
+     * Puts every blocked area in all grid cells it overlaps, so {@link #shouldBlock(float, float)} only has to
+     * check the areas of a single cell. The lists of cells which still have areas are reused, as areas are blocked and
+     * unblocked every frame, and the empty ones are removed.
+     */
+    private void updateBlockGrid() {
+        for (ArrayList<BlockedArea> cell : blockGrid.values()) cell.clear();
+        for (BlockedArea block : blockedAreas) {
+            int right = getCell(block.x + block.width);
+            int bottom = getCell(block.y + block.height);
+            for (int cellX = getCell(block.x); cellX <= right; cellX++) {
+                for (int cellY = getCell(block.y); cellY <= bottom; cellY++) {
+                    blockGrid.computeIfAbsent(getCellKey(cellX, cellY), key -> new ArrayList<>()).add(block);
+                }
+            }
+        }
+        blockGrid.values().removeIf(ArrayList::isEmpty);
+        blockGridDirty = false;
+    }
+
+    private static int getCell(float pos) {
+        return (int) Math.floor(pos / BLOCK_CELL_SIZE);
+    }
+
+    private static long getCellKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A copy of a blocked scissor, so the grid can't go out of date when the scissor is changed.
+     */
+    private static final class BlockedArea {
+        private final Scissor scissor;
+        private final float x;
+        private final float y;
+        private final float width;
+        private final float height;
+
+        private BlockedArea(Scissor scissor) {
+            this.scissor = scissor;
+            this.x = scissor.x;
+            this.y = scissor.y;
+            this.width = scissor.width;
+            this.height = scissor.height;
+        }
+
+        private boolean isInScissor(float x, float y) {
+            return x >= this.x && x <= this.x + this.width && y >= this.y && y <= this.y + this.height;
+        }
+    }
 }
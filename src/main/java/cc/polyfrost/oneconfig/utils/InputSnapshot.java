@@ -0,0 +1,167 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.utils;
+
+import cc.polyfrost.oneconfig.events.EventManager;
+import cc.polyfrost.oneconfig.events.event.RawMouseEvent;
+import cc.polyfrost.oneconfig.events.event.RenderEvent;
+import cc.polyfrost.oneconfig.events.event.Stage;
+import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
+import cc.polyfrost.oneconfig.libs.universal.UKeyboard;
+import cc.polyfrost.oneconfig.platform.MousePlatform;
+import cc.polyfrost.oneconfig.platform.Platform;
+
+/**
+ * An immutable snapshot of the mouse and modifier keys, captured once at the start of every frame.
+ * <p>
+ * Button presses and releases are also queued from the raw mouse events, so a click which starts and ends
+ * between two frames is still seen by the next snapshot.
+ * </p>
+ *
+ * @see InputHandler
+ */
+public final class InputSnapshot {
+    /**
+     * The amount of mouse buttons which are tracked.
+     */
+    public static final int BUTTONS = 8;
+    private static volatile InputSnapshot current = capture(0, 0, 0);
+    private static int queuedPresses = 0;
+    private static int queuedReleases = 0;
+
+    static {
+        EventManager.INSTANCE.register(new Listener());
+    }
+
+    private final double mouseX;
+    private final double mouseY;
+    private final int down;
+    private final int pressed;
+    private final int released;
+    private final boolean shift;
+    private final boolean ctrl;
+    private final boolean alt;
+
+    private InputSnapshot(double mouseX, double mouseY, int down, int pressed, int released, boolean shift, boolean ctrl, boolean alt) {
+        this.mouseX = mouseX;
+        this.mouseY = mouseY;
+        this.down = down;
+        this.pressed = pressed;
+        this.released = released;
+        this.shift = shift;
+        this.ctrl = ctrl;
+        this.alt = alt;
+    }
+
+    /**
+     * @return The snapshot of the current frame
+     */
+    public static InputSnapshot getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return The unscaled mouse X position
+     */
+    public double getMouseX() {
+        return mouseX;
+    }
+
+    /**
+     * @return The unscaled mouse Y position
+     */
+    public double getMouseY() {
+        return mouseY;
+    }
+
+    /**
+     * @param button The button
+     * @return If the button is down
+     */
+    public boolean isButtonDown(int button) {
+        return (down & bit(button)) != 0;
+    }
+
+    /**
+     * @param button The button
+     * @return If the button was pressed since the last frame
+     */
+    public boolean wasPressed(int button) {
+        return (pressed & bit(button)) != 0;
+    }
+
+    /**
+     * @param button The button
+     * @return If the button was released since the last frame
+     */
+    public boolean wasReleased(int button) {
+        return (released & bit(button)) != 0;
+    }
+
+    public boolean isShiftDown() {
+        return shift;
+    }
+
+    public boolean isCtrlDown() {
+        return ctrl;
+    }
+
+    public boolean isAltDown() {
+        return alt;
+    }
+
+    private static int bit(int button) {
+        return button >= 0 && button < BUTTONS ? 1 << button : 0;
+    }
+
+    private static InputSnapshot capture(int previouslyDown, int queuedPresses, int queuedReleases) {
+        MousePlatform mouse = Platform.getMousePlatform();
+        int down = 0;
+        for (int button = 0; button < BUTTONS; button++) {
+            if (mouse.isButtonDown(button)) down |= 1 << button;
+        }
+        return new InputSnapshot(mouse.getMouseX(), mouse.getMouseY(), down,
+                (down & ~previouslyDown) | queuedPresses, (~down & previouslyDown) | queuedReleases,
+                UKeyboard.isShiftKeyDown(), UKeyboard.isCtrlKeyDown(), UKeyboard.isAltKeyDown());
+    }
+
+    private static class Listener {
+        @Subscribe
+        private void onRenderEvent(RenderEvent event) {
+            if (event.stage != Stage.START) return;
+            current = capture(current.down, queuedPresses, queuedReleases);
+            queuedPresses = 0;
+            queuedReleases = 0;
+        }
+
+        @Subscribe
+        private void onMouseEvent(RawMouseEvent event) {
+            if (event.state == 1) queuedPresses |= bit(event.button);
+            else queuedReleases |= bit(event.button);
+        }
+    }
+}
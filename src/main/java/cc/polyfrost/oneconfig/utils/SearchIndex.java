@@ -0,0 +1,266 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.utils;
+
+import cc.polyfrost.oneconfig.internal.config.Preferences;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * A set of strings which can be searched the same way as {@link SearchUtils#isSimilar(String, String)}.
+ * <p>
+ * Every string is normalized and split into tokens once, when it is added, and every distinct token is only compared
+ * with a query once. A trigram inverted index of the tokens is used to skip the ones which can't be within the search
+ * distance of the query before the fuzzy comparison, and the strings are found from their matching tokens and their
+ * length instead of being compared one by one. The result of a query is cached until the query, the search distance or
+ * the strings change.
+ */
+public class SearchIndex {
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    private final ArrayList<String> texts = new ArrayList<>();
+    private final ArrayList<int[]> textTokens = new ArrayList<>();
+    private final HashMap<String, Integer> tokenIds = new HashMap<>();
+    private final ArrayList<String> tokens = new ArrayList<>();
+    private final ArrayList<Postings> tokenTexts = new ArrayList<>();
+    private final ArrayList<Postings> lengths = new ArrayList<>();
+    private final HashMap<Long, Postings> trigrams = new HashMap<>();
+    private final BitSet tokenMatches = new BitSet();
+    private final BitSet matches = new BitSet();
+    private String query = null;
+    private String normalizedQuery = null;
+    private SearchUtils.Query compiledQuery = null;
+    private boolean checkContains;
+    private int distance = -1;
+    private int evaluated = 0, evaluatedTokens = 0;
+
+    /**
+     * Add a string to the index. Strings which are already in the index are only stored once.
+     *
+     * @param text The string to add
+     * @return The id of the string, which can be used with {@link #isSimilar(int, String)}
+     */
+    public int add(String text) {
+        Integer id = ids.get(text);
+        if (id != null) return id;
+        int newId = texts.size();
+        String normalized = text.toLowerCase(Locale.ENGLISH);
+        String[] split = StringUtils.split(normalized);
+        int[] splitIds = new int[split.length];
+        for (int i = 0; i < split.length; i++) {
+            splitIds[i] = addToken(split[i]);
+            tokenTexts.get(splitIds[i]).add(newId);
+        }
+        while (lengths.size() <= normalized.length()) lengths.add(new Postings());
+        lengths.get(normalized.length()).add(newId);
+        ids.put(text, newId);
+        texts.add(normalized);
+        textTokens.add(splitIds);
+        return newId;
+    }
+
+    /**
+     * Check if a string matches a query. Strings which aren't in the index yet are added to it.
+     *
+     * @param text  The string to check
+     * @param query The search query
+     * @return Whether {@link SearchUtils#isSimilar(String, String)} would return true
+     */
+    public boolean isSimilar(String text, String query) {
+        return isSimilar(add(text), query);
+    }
+
+    /**
+     * Check if a string in the index matches a query.
+     *
+     * @param id    The id of the string, as returned by {@link #add(String)}
+     * @param query The search query
+     * @return Whether {@link SearchUtils#isSimilar(String, String)} would return true
+     */
+    public boolean isSimilar(int id, String query) {
+        if (!query.equals(this.query) || Preferences.searchDistance != distance) evaluate(query);
+        else if (evaluated < texts.size()) evaluateRemaining();
+        return matches.get(id);
+    }
+
+    /**
+     * @return The amount of strings in the index
+     */
+    public int size() {
+        return texts.size();
+    }
+
+    private int addToken(String token) {
+        Integer id = tokenIds.get(token);
+        if (id != null) return id;
+        int newId = tokens.size();
+        tokenIds.put(token, newId);
+        tokens.add(token);
+        tokenTexts.add(new Postings());
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            Long trigram = getTrigram(token, i);
+            Postings postings = trigrams.get(trigram);
+            if (postings == null) trigrams.put(trigram, postings = new Postings());
+            postings.add(newId);
+        }
+        return newId;
+    }
+
+    private void evaluate(String query) {
+        this.query = query;
+        normalizedQuery = query.toLowerCase(Locale.ENGLISH);
+        compiledQuery = new SearchUtils.Query(normalizedQuery);
+        checkContains = normalizedQuery.isEmpty() || StringUtils.containsWhitespace(normalizedQuery);
+        distance = Preferences.searchDistance;
+        tokenMatches.clear();
+        matches.clear();
+        int size = tokens.size();
+        ArrayList<Long> queryTrigrams = new ArrayList<>();
+        for (int i = 0; i + 3 <= normalizedQuery.length(); i++) {
+            Long trigram = getTrigram(normalizedQuery, i);
+            if (!queryTrigrams.contains(trigram)) queryTrigrams.add(trigram);
+        }
+        // every edit can remove at most three of the trigrams of the query, so a token which shares fewer trigrams
+        // with the query than this can't be within the search distance, nor contain the query
+        int threshold = queryTrigrams.size() - 3 * distance;
+        if (threshold <= 0) {
+            for (int i = 0; i < size; i++) {
+                if (tokenMatches(i)) tokenMatches.set(i);
+            }
+        } else {
+            int[] counts = new int[size];
+            for (Long trigram : queryTrigrams) {
+                Postings postings = trigrams.get(trigram);
+                if (postings == null) continue;
+                for (int i = 0; i < postings.size; i++) counts[postings.ids[i]]++;
+            }
+            for (int i = 0; i < size; i++) {
+                if (counts[i] >= threshold && tokenMatches(i)) tokenMatches.set(i);
+            }
+        }
+        evaluatedTokens = size;
+        evaluated = texts.size();
+        int length = normalizedQuery.length();
+        if (length == 0) {
+            matches.set(0, evaluated);
+            return;
+        }
+        // texts which aren't longer than the search distance only match if they contain the query
+        for (int i = 0; i <= distance && i < lengths.size(); i++) {
+            Postings postings = lengths.get(i);
+            for (int j = 0; j < postings.size; j++) {
+                if (texts.get(postings.ids[j]).contains(normalizedQuery)) matches.set(postings.ids[j]);
+            }
+        }
+        for (int token = tokenMatches.nextSetBit(0); token >= 0; token = tokenMatches.nextSetBit(token + 1)) {
+            Postings postings = tokenTexts.get(token);
+            for (int i = 0; i < postings.size; i++) {
+                if (texts.get(postings.ids[i]).length() > distance) matches.set(postings.ids[i]);
+            }
+        }
+        // the whole text can only be within the search distance of the query if its length is
+        for (int i = Math.max(distance + 1, length - distance); i <= length + distance && i < lengths.size(); i++) {
+            Postings postings = lengths.get(i);
+            for (int j = 0; j < postings.size; j++) {
+                int id = postings.ids[j];
+                if (!matches.get(id) && compiledQuery.getLevenshteinDistance(texts.get(id), distance) != -1) matches.set(id);
+            }
+        }
+        if (checkContains) {
+            // a text which contains the query has a token which contains its longest word
+            String word = "";
+            for (String split : StringUtils.split(normalizedQuery)) {
+                if (split.length() > word.length()) word = split;
+            }
+            if (word.isEmpty()) {
+                // the query is only whitespace
+                for (int i = 0; i < evaluated; i++) {
+                    if (!matches.get(i) && matches(i)) matches.set(i);
+                }
+                return;
+            }
+            for (int token = 0; token < size; token++) {
+                if (!tokens.get(token).contains(word)) continue;
+                Postings postings = tokenTexts.get(token);
+                for (int i = 0; i < postings.size; i++) {
+                    int id = postings.ids[i];
+                    String text = texts.get(id);
+                    if (!matches.get(id) && text.length() > distance && text.contains(normalizedQuery)) matches.set(id);
+                }
+            }
+        }
+    }
+
+    private void evaluateRemaining() {
+        for (int i = evaluatedTokens; i < tokens.size(); i++) {
+            if (tokenMatches(i)) tokenMatches.set(i);
+        }
+        evaluatedTokens = tokens.size();
+        for (int i = evaluated; i < texts.size(); i++) {
+            if (matches(i)) matches.set(i);
+        }
+        evaluated = texts.size();
+    }
+
+    private boolean tokenMatches(int id) {
+        String token = tokens.get(id);
+        return token.contains(normalizedQuery) || compiledQuery.getLevenshteinDistance(token, distance) != -1;
+    }
+
+    /**
+     * Same as {@link SearchUtils#isSimilar(String, String, int)}, using the results for the tokens.
+     */
+    private boolean matches(int id) {
+        String text = texts.get(id);
+        if (text.length() <= distance) return text.contains(normalizedQuery);
+        for (int token : textTokens.get(id)) {
+            if (tokenMatches.get(token)) return true;
+        }
+        // without whitespace in the query, the text can only contain it if one of its tokens does
+        if (checkContains && text.contains(normalizedQuery)) return true;
+        return compiledQuery.getLevenshteinDistance(text, distance) != -1;
+    }
+
+    private static Long getTrigram(String s, int index) {
+        return ((long) s.charAt(index) << 32) | ((long) s.charAt(index + 1) << 16) | s.charAt(index + 2);
+    }
+
+    private static class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+    }
+}
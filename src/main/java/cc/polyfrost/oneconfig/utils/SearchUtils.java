@@ -35,6 +35,8 @@ import java.util.Locale;
  * Based on <a href="https://www.baeldung.com/java-levenshtein-distance">https://www.baeldung.com/java-levenshtein-distance</a>
  */
 public class SearchUtils {
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+    private static final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
 
     public static boolean isSimilar(String s1, String s2) {
         return isSimilar(s1, s2, Preferences.searchDistance);
@@ -48,9 +50,175 @@ public class SearchUtils {
         }
         boolean similar = false;
         for (String a : StringUtils.split(s1)) {
-            similar = a.contains(s2) || StringUtils.getLevenshteinDistance(a, s2) <= searchDistance;
+            similar = a.contains(s2) || getLevenshteinDistance(a, s2, searchDistance) != -1;
             if (similar) break;
         }
-        return similar || s1.contains(s2) || StringUtils.getLevenshteinDistance(s1, s2) <= searchDistance;
+        return similar || s1.contains(s2) || getLevenshteinDistance(s1, s2, searchDistance) != -1;
+    }
+
+    /**
+     * Get the Levenshtein distance between two strings, if it isn't larger than the threshold.
+     * <p>
+     * Uses Myers' bit-parallel algorithm if the shorter string is at most 64 characters long, and a dynamic programming
+     * algorithm limited to the diagonal band of the threshold otherwise. Both stop as soon as the threshold can't be
+     * reached anymore, and don't allocate memory after the first use on a thread.
+     *
+     * @param s1        The first string
+     * @param s2        The second string
+     * @param threshold The largest distance which is of interest
+     * @return The distance, or -1 if it is larger than the threshold
+     */
+    public static int getLevenshteinDistance(CharSequence s1, CharSequence s2, int threshold) {
+        if (threshold < 0) return -1;
+        if (s1.length() > s2.length()) {
+            CharSequence temp = s1;
+            s1 = s2;
+            s2 = temp;
+        }
+        int n = s1.length();
+        int m = s2.length();
+        if (m - n > threshold) return -1;
+        if (n == 0) return m;
+        if (n <= 64) return getDistanceBitParallel(s1, s2, threshold);
+        return getDistanceBanded(s1, s2, threshold);
+    }
+
+    /**
+     * Myers' bit-parallel algorithm. The columns of the distance matrix for the shorter string are stored as
+     * bit vectors of the vertical differences, so a whole column is computed with a few word operations.
+     */
+    private static int getDistanceBitParallel(CharSequence pattern, CharSequence text, int threshold) {
+        Scratch scratch = SearchUtils.scratch.get();
+        int n = pattern.length();
+        for (int i = 0; i < n; i++) scratch.addMatch(pattern.charAt(i), 1L << i);
+        int result = getDistanceBitParallel(scratch, n, text, threshold);
+        for (int i = 0; i < n; i++) scratch.clearMatches(pattern.charAt(i));
+        return result;
+    }
+
+    private static int getDistanceBitParallel(Scratch scratch, int n, CharSequence text, int threshold) {
+        int m = text.length();
+        long last = 1L << (n - 1);
+        long pv = -1L;
+        long mv = 0L;
+        int distance = n;
+        int result = -1;
+        for (int j = 0; j < m; j++) {
+            long eq = scratch.getMatches(text.charAt(j));
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) distance++;
+            else if ((mh & last) != 0) distance--;
+            // the distance can go down by at most one for every remaining character
+            if (distance - (m - j - 1) > threshold) break;
+            ph = (ph << 1) | 1L;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+            if (j == m - 1) result = distance;
+        }
+        return result <= threshold ? result : -1;
+    }
+
+    /**
+     * Ukkonen's cut-off: only the cells within the threshold of the diagonal are computed, and the computation stops
+     * when a whole row is above the threshold.
+     */
+    private static int getDistanceBanded(CharSequence s1, CharSequence s2, int threshold) {
+        int n = s1.length();
+        int m = s2.length();
+        Scratch scratch = SearchUtils.scratch.get();
+        int[] previous = scratch.getRow(0, m + 1);
+        int[] current = scratch.getRow(1, m + 1);
+        int end = Math.min(m, threshold);
+        for (int j = 0; j <= end; j++) previous[j] = j;
+        if (end < m) previous[end + 1] = INFINITY;
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - threshold);
+            int to = Math.min(m, i + threshold);
+            current[from - 1] = from == 1 ? i : INFINITY;
+            int rowMin = current[from - 1];
+            char c = s1.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int value = previous[j - 1] + (c == s2.charAt(j - 1) ? 0 : 1);
+                value = Math.min(value, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = value;
+                if (value < rowMin) rowMin = value;
+            }
+            if (to < m) current[to + 1] = INFINITY;
+            if (rowMin > threshold) return -1;
+            int[] temp = previous;
+            previous = current;
+            current = temp;
+        }
+        return previous[m] <= threshold ? previous[m] : -1;
+    }
+
+    /**
+     * A query which is compared with many strings, so the bit vectors of its characters are only computed once.
+     */
+    static class Query {
+        private final String query;
+        private final Scratch scratch = new Scratch();
+
+        Query(String query) {
+            this.query = query;
+            if (query.length() <= 64) {
+                for (int i = 0; i < query.length(); i++) scratch.addMatch(query.charAt(i), 1L << i);
+            }
+        }
+
+        /**
+         * @see SearchUtils#getLevenshteinDistance(CharSequence, CharSequence, int)
+         */
+        int getLevenshteinDistance(CharSequence text, int threshold) {
+            int n = query.length();
+            int m = text.length();
+            if (threshold < 0 || Math.abs(m - n) > threshold) return -1;
+            if (n == 0 || m == 0) return Math.max(n, m);
+            if (n <= 64) return getDistanceBitParallel(scratch, n, text, threshold);
+            return SearchUtils.getLevenshteinDistance(query, text, threshold);
+        }
+    }
+
+    private static class Scratch {
+        private final char[] keys = new char[128];
+        private final long[] masks = new long[128];
+        private final boolean[] used = new boolean[128];
+        private final int[][] rows = new int[2][64];
+
+        private void addMatch(char c, long bit) {
+            int slot = c & 127;
+            while (used[slot] && keys[slot] != c) slot = (slot + 1) & 127;
+            used[slot] = true;
+            keys[slot] = c;
+            masks[slot] |= bit;
+        }
+
+        private long getMatches(char c) {
+            int slot = c & 127;
+            while (used[slot]) {
+                if (keys[slot] == c) return masks[slot];
+                slot = (slot + 1) & 127;
+            }
+            return 0L;
+        }
+
+        private void clearMatches(char c) {
+            // the slots are all cleared together, so the probe chains don't need to be repaired
+            int slot = c & 127;
+            while (used[slot]) {
+                used[slot] = false;
+                masks[slot] = 0L;
+                slot = (slot + 1) & 127;
+            }
+        }
+
+        private int[] getRow(int index, int size) {
+            if (rows[index].length < size) rows[index] = new int[Math.max(size, rows[index].length * 2)];
+            return rows[index];
+        }
     }
 }
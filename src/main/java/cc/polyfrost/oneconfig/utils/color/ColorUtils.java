@@ -26,10 +26,24 @@
 
 package cc.polyfrost.oneconfig.utils.color;
 
+import cc.polyfrost.oneconfig.config.core.OneColor;
+
 /**
  * A class to help with color manipulation.
  */
 public final class ColorUtils {
+    private static final int HUE_STEPS = 1024;
+    /**
+     * Packed RGB colors of every hue step at full saturation and brightness.
+     */
+    private static final int[] HUE_TABLE = new int[HUE_STEPS];
+
+    static {
+        for (int i = 0; i < HUE_STEPS; i++) {
+            HUE_TABLE[i] = OneColor.HSBAtoARGB(i * 360f / HUE_STEPS, 100, 100, 0) & 0xFFFFFF;
+        }
+    }
+
     /**
      * Get the red component of an RGB color.
      *
@@ -159,4 +173,23 @@ public final class ColorUtils {
     public static int setAlpha(int color, int alpha) {
         return (color & 0xFFFFFF) | (alpha << 24);
     }
+
+    /**
+     * Get the ARGB color of the given hue using a precomputed table, used for chroma colors.
+     *
+     * @param hue        the hue (0-1), values outside of this range wrap around.
+     * @param saturation the saturation (0-100).
+     * @param brightness the brightness (0-100).
+     * @param alpha      the alpha component (0-255).
+     * @return the ARGB color.
+     */
+    public static int getChromaColor(float hue, int saturation, int brightness, int alpha) {
+        float wrapped = hue - (float) Math.floor(hue);
+        int full = HUE_TABLE[(int) (wrapped * HUE_STEPS) & (HUE_STEPS - 1)];
+        int desaturated = 25500 - saturation * 255;
+        int red = (brightness * (desaturated + saturation * (full >> 16 & 0xFF)) + 5000) / 10000;
+        int green = (brightness * (desaturated + saturation * (full >> 8 & 0xFF)) + 5000) / 10000;
+        int blue = (brightness * (desaturated + saturation * (full & 0xFF)) + 5000) / 10000;
+        return getColor(red, green, blue, alpha & 0xFF);
+    }
 }
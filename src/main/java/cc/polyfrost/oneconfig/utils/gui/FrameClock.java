@@ -0,0 +1,189 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.utils.gui;
+
+import cc.polyfrost.oneconfig.events.EventManager;
+import cc.polyfrost.oneconfig.events.event.RenderEvent;
+import cc.polyfrost.oneconfig.events.event.Stage;
+import cc.polyfrost.oneconfig.gui.animations.AnimationEngine;
+import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A high-resolution frame clock, driven by {@link System#nanoTime()} at the start of every frame.
+ * <p>
+ * Besides the exact time and delta of the current frame, it keeps a histogram of the frame times of the last
+ * {@link #WINDOW_SIZE} frames, so frame-time statistics can be read without doing any timing yourself.
+ * The histogram keeps about 3% precision and can be read from any thread.
+ * <p>
+ * The clock is the only listener for the start of the frame, so it can advance the {@link AnimationEngine} after
+ * updating the time, instead of relying on the order the event bus calls listeners in.
+ */
+public final class FrameClock {
+    /**
+     * The amount of frames the frame-time statistics are computed over.
+     */
+    public static final int WINDOW_SIZE = 1024;
+    private static final int SUB_BUCKETS = 32;
+    private static final int MAX_SHIFT = 18;
+    private static final int MAX_VALUE = (1 << 24) - 1;
+    private static final AtomicIntegerArray counts = new AtomicIntegerArray(SUB_BUCKETS * 2 + MAX_SHIFT * SUB_BUCKETS);
+    private static final int[] window = new int[WINDOW_SIZE];
+    private static volatile long frameNanos = System.nanoTime();
+    private static volatile long deltaNanos = 17_000_000L;
+    private static volatile long frameIndex = 0;
+    private static long lastFrame = -1;
+
+    static {
+        EventManager.INSTANCE.register(new FrameClock());
+    }
+
+    private FrameClock() {
+    }
+
+    /**
+     * @return the time the current frame was started at, in nanoseconds.
+     */
+    public static long getFrameNanos() {
+        return frameNanos;
+    }
+
+    /**
+     * @return the time between the start of the last frame and the current one, in nanoseconds.
+     */
+    public static long getDeltaNanos() {
+        return deltaNanos;
+    }
+
+    /**
+     * @return the time between the start of the last frame and the current one, in milliseconds.
+     */
+    public static float getDeltaTime() {
+        return deltaNanos / 1_000_000f;
+    }
+
+    /**
+     * @return the amount of frames which were started since the clock was initialized.
+     */
+    public static long getFrameIndex() {
+        return frameIndex;
+    }
+
+    /**
+     * Gets the frame time at the given percentile, over the last {@link #WINDOW_SIZE} frames.
+     *
+     * @param percentile the percentile, from 0 to 100.
+     * @return the frame time, in milliseconds, or 0 if no frames were recorded yet.
+     */
+    public static float getPercentile(double percentile) {
+        int[] snapshot = new int[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= target) return getHighestValue(i) / 1000f;
+        }
+        return getHighestValue(snapshot.length - 1) / 1000f;
+    }
+
+    /**
+     * @return the median frame time over the last {@link #WINDOW_SIZE} frames, in milliseconds.
+     */
+    public static float getP50() {
+        return getPercentile(50);
+    }
+
+    /**
+     * @return the 95th percentile frame time over the last {@link #WINDOW_SIZE} frames, in milliseconds.
+     */
+    public static float getP95() {
+        return getPercentile(95);
+    }
+
+    /**
+     * @return the 99th percentile frame time over the last {@link #WINDOW_SIZE} frames, in milliseconds.
+     */
+    public static float getP99() {
+        return getPercentile(99);
+    }
+
+    /**
+     * @return the longest frame time over the last {@link #WINDOW_SIZE} frames, in milliseconds.
+     */
+    public static float getMax() {
+        for (int i = counts.length() - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) return getHighestValue(i) / 1000f;
+        }
+        return 0;
+    }
+
+    private static void record(long nanos) {
+        int bucket = getBucket((int) Math.min(nanos / 1000, MAX_VALUE));
+        int slot = (int) (frameIndex % WINDOW_SIZE);
+        if (frameIndex >= WINDOW_SIZE) counts.decrementAndGet(window[slot]);
+        window[slot] = bucket;
+        counts.incrementAndGet(bucket);
+    }
+
+    /**
+     * Values below {@code 2 * SUB_BUCKETS} get a bucket each, larger ones share a bucket with every value
+     * which has the same 6 highest bits.
+     */
+    private static int getBucket(int micros) {
+        if (micros < SUB_BUCKETS * 2) return micros;
+        int shift = 31 - Integer.numberOfLeadingZeros(micros) - 5;
+        return SUB_BUCKETS * 2 + (shift - 1) * SUB_BUCKETS + (micros >> shift) - SUB_BUCKETS;
+    }
+
+    private static long getHighestValue(int bucket) {
+        if (bucket < SUB_BUCKETS * 2) return bucket;
+        int shift = (bucket - SUB_BUCKETS * 2) / SUB_BUCKETS + 1;
+        long mantissa = (bucket - SUB_BUCKETS * 2) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    @Subscribe
+    private void onRenderEvent(RenderEvent event) {
+        if (event.stage != Stage.START) return;
+        long now = System.nanoTime();
+        if (lastFrame != -1) {
+            deltaNanos = now - lastFrame;
+            record(deltaNanos);
+            frameIndex++;
+        }
+        lastFrame = now;
+        frameNanos = now;
+        AnimationEngine.INSTANCE.advance(getDeltaTime());
+    }
+}
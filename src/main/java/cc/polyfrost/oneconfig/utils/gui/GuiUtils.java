@@ -31,7 +31,6 @@ import cc.polyfrost.oneconfig.events.event.RenderEvent;
 import cc.polyfrost.oneconfig.events.event.Stage;
 import cc.polyfrost.oneconfig.gui.OneConfigGui;
 import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
-import cc.polyfrost.oneconfig.libs.universal.UMinecraft;
 import cc.polyfrost.oneconfig.platform.Platform;
 import cc.polyfrost.oneconfig.utils.TickDelay;
 
@@ -39,8 +38,7 @@ import cc.polyfrost.oneconfig.utils.TickDelay;
  * A class containing utility methods for working with GuiScreens.
  */
 public final class GuiUtils {
-    private static long time = -1L;
-    private static long deltaTime = 17L;
+    private static long frameTime = System.currentTimeMillis();
     private static boolean wasMouseDown = false;
 
     static {
@@ -84,7 +82,28 @@ public final class GuiUtils {
      * @return the delta time.
      */
     public static float getDeltaTime() {
-        return deltaTime;
+        return FrameClock.getDeltaTime();
+    }
+
+    /**
+     * Gets the time (in milliseconds) the current frame was started at. This is captured once per frame,
+     * so everything sampling it during a frame (like chroma colors) sees the same value.
+     *
+     * @return the time of the current frame.
+     */
+    public static long getFrameTime() {
+        return frameTime;
+    }
+
+    /**
+     * Gets the high-resolution time the current frame was started at, from {@link System#nanoTime()}.
+     * This is captured once per frame and is what animations are sampled against.
+     *
+     * @return the time of the current frame, in nanoseconds.
+     * @see FrameClock
+     */
+    public static long getFrameNanos() {
+        return FrameClock.getFrameNanos();
     }
 
     /**
@@ -97,12 +116,7 @@ public final class GuiUtils {
     @Subscribe
     private void onRenderEvent(RenderEvent event) {
         if (event.stage == Stage.START) {
-            if (time == -1) time = UMinecraft.getTime();
-            else {
-                long currentTime = UMinecraft.getTime();
-                deltaTime = currentTime - time;
-                time = currentTime;
-            }
+            frameTime = System.currentTimeMillis();
         } else if (event.stage == Stage.END) {
             wasMouseDown = Platform.getMousePlatform().isButtonDown(0);
         }
@@ -35,6 +35,7 @@ import cc.polyfrost.oneconfig.internal.config.OneConfigConfig;
 import cc.polyfrost.oneconfig.internal.config.Preferences;
 import cc.polyfrost.oneconfig.internal.config.compatibility.forge.ForgeCompat;
 import cc.polyfrost.oneconfig.internal.config.core.ConfigCore;
+import cc.polyfrost.oneconfig.internal.config.core.ConfigWriter;
 import cc.polyfrost.oneconfig.internal.config.core.KeyBindHandler;
 import cc.polyfrost.oneconfig.internal.gui.BlurHandler;
 import cc.polyfrost.oneconfig.internal.hud.HudCore;
@@ -267,5 +268,7 @@ public class OneConfig {
     @Subscribe
     private void onShutdown(ShutdownEvent event) {
         ConfigCore.saveAll();
+        // the writer thread is a daemon, so the saves have to be written before the game exits
+        ConfigWriter.flush();
     }
 }
@@ -26,8 +26,7 @@
 //#if FORGE==1 && MC<=11202
 package cc.polyfrost.oneconfig.internal.mixin;
 
-import cc.polyfrost.oneconfig.hud.Hud;
-import cc.polyfrost.oneconfig.libs.universal.UGraphics;
+import cc.polyfrost.oneconfig.internal.hud.HudCore;
 import cc.polyfrost.oneconfig.libs.universal.UMatrixStack;
 import net.minecraft.client.renderer.EntityRenderer;
 import org.spongepowered.asm.mixin.Mixin;
@@ -36,7 +35,6 @@ import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 import static cc.polyfrost.oneconfig.internal.hud.HudCore.editing;
-import static cc.polyfrost.oneconfig.internal.hud.HudCore.huds;
 
 @Mixin(EntityRenderer.class)
 public class EntityRendererMixin {
@@ -44,14 +42,7 @@ public class EntityRendererMixin {
     @Inject(method = "updateCameraAndRender", at = @At(value = "INVOKE", target = "Lnet/minecraft/client/gui/GuiIngame;renderGameOverlay(F)V", shift = At.Shift.AFTER))
     private void drawHud(float partialTicks, long nanoTime, CallbackInfo ci) {
         if (editing) return;
-        UMatrixStack matrices = new UMatrixStack();
-        for (Hud hud : huds.values()) {
-            if (!hud.isEnabled() || !hud.isCachingIgnored()) continue;
-            hud.deltaTicks = partialTicks;
-            UGraphics.enableAlpha();
-            UGraphics.enableBlend();
-            hud.drawAll(matrices, false);
-        }
+        HudCore.drawHuds(new UMatrixStack(), partialTicks, true);
     }
 }
 //#endif
\ No newline at end of file